@@ -0,0 +1,77 @@
+package com.example.hangman.benchmarks;
+
+import com.example.hangman.BinaryDictionary;
+import com.example.hangman.Dictionary;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * generated dictionaries used by the benchmarks
+ * words are random uppercase words of 6 to 15 letters (word i has 6 + i % 10 letters, so every
+ * dictionary passes validation), generated from a fixed seed so every run uses the same words
+ * files are written to the game's dictionary directory (medialab/ under the working directory)
+ * and reused by later runs
+ */
+final class Dictionaries {
+    private Dictionaries() {
+    }
+
+    /**
+     * @param size number of words
+     * @param binary also write the binary sidecar, so loading maps it instead of parsing the text
+     * @return id of a dictionary with size words
+     * @throws IOException failed to write dictionary
+     */
+    static String ensure (int size, boolean binary) throws IOException {
+        String id = "bench-" + size + (binary ? "-bin" : "-txt");
+        Path text = Dictionary.textPath(id);
+        Path sidecar = Dictionary.binaryPath(id);
+        if (Files.isRegularFile(text) && (!binary || BinaryDictionary.isFresh(sidecar, text))) {
+            return id;
+        }
+
+        Set<String> words = words(size);
+        Files.createDirectories(text.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(text, StandardCharsets.US_ASCII)) {
+            int counter = 0;
+            for (String word : words) {
+                writer.write(word);
+                if (++counter < size) {
+                    writer.write('\n');
+                }
+            }
+        }
+        if (binary) {
+            BinaryDictionary.write(sidecar, words);
+        }
+        else {
+            Files.deleteIfExists(sidecar);
+        }
+        return id;
+    }
+
+    /**
+     * @param size number of words
+     * @return size unique words in generation order
+     */
+    static Set<String> words (int size) {
+        Random random = new Random(size);
+        Set<String> words = new LinkedHashSet<>(size * 2);
+        char[] buffer = new char[15];
+        while (words.size() < size) {
+            int length = 6 + words.size() % 10;
+            for (int i = 0; i < length; i++) {
+                buffer[i] = (char) ('A' + random.nextInt(26));
+            }
+            words.add(new String(buffer, 0, length));
+        }
+        return words;
+    }
+}
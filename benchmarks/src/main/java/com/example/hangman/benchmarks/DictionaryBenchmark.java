@@ -0,0 +1,107 @@
+package com.example.hangman.benchmarks;
+
+import com.example.hangman.Dictionary;
+import com.example.hangman.DictionaryCache;
+import com.example.hangman.DictionaryIndex;
+import com.example.hangman.DictionaryValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * loading, validating and indexing dictionaries of 20 to 1M words
+ * load() reads the text file or maps the binary sidecar (format), validation benchmarks feed
+ * words already in memory to a DictionaryValidator, cachedGet() is the cost of a DictionaryCache hit
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DictionaryBenchmark {
+    @Param({"20", "1000", "100000", "1000000"})
+    public int size;
+
+    // words of the dictionary in file order
+    private String[] words;
+
+    /**
+     * dictionary files, only used by the benchmarks reading files
+     */
+    @State(Scope.Benchmark)
+    public static class Source {
+        @Param({"text", "binary"})
+        public String format;
+
+        private String id;
+
+        @Setup(Level.Trial)
+        public void setup (DictionaryBenchmark benchmark) throws Exception {
+            this.id = Dictionaries.ensure(benchmark.size, this.format.equals("binary"));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup () {
+        this.words = Dictionaries.words(this.size).toArray(new String[0]);
+    }
+
+    @Benchmark
+    public String[] load (Source source) throws Exception {
+        return Dictionary.load(source.id);
+    }
+
+    @Benchmark
+    public DictionaryIndex loadAndIndex (Source source) throws Exception {
+        return Dictionary.loadIndex(source.id);
+    }
+
+    @Benchmark
+    public DictionaryIndex cachedGet (Source source) throws Exception {
+        return DictionaryCache.shared().get(source.id);
+    }
+
+    @Benchmark
+    public int validateExact () throws Exception {
+        DictionaryValidator validator = new DictionaryValidator("bench");
+        for (String word : this.words) {
+            validator.accept(word);
+        }
+        validator.finish();
+        return validator.getTotalWords();
+    }
+
+    @Benchmark
+    public int validateBounded () throws Exception {
+        DictionaryValidator validator = new DictionaryValidator("bench", DictionaryValidator.Mode.BOUNDED, 1 << 20);
+        for (String word : this.words) {
+            validator.accept(word);
+        }
+        // second pass over the words that may be duplicates, as Dictionary.load does
+        if (validator.needsConfirmation()) {
+            int line = 0;
+            for (String word : this.words) {
+                validator.confirm(word, ++line);
+            }
+        }
+        validator.finish();
+        return validator.getTotalWords();
+    }
+
+    @Benchmark
+    public DictionaryIndex index () {
+        return new DictionaryIndex(this.words);
+    }
+}
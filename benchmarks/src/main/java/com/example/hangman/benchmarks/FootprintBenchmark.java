@@ -0,0 +1,110 @@
+package com.example.hangman.benchmarks;
+
+import com.example.hangman.BinaryDictionary;
+import com.example.hangman.Dictionary;
+import com.example.hangman.DictionaryCache;
+import com.example.hangman.LoadProgress;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * heap retained by a loaded dictionary, reported as the retainedBytes counter (the score is the load time)
+ * strings keeps the String[] returned by Dictionary.load(), which is how indexed dictionaries held
+ * their words before they were packed, packed keeps the length buckets of 5-bit letter codes read from
+ * the sidecar (see PackedWords), the very buckets a DictionaryIndex retains as its words, index keeps the
+ * DictionaryIndex of Dictionary.loadIndex() (packed words, letter counts and inverted index) and cache keeps
+ * a DictionaryCache holding the dictionary, which is what games actually share; all of them load the binary sidecar
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+// the counter is summed over iterations, the heap is measured once
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class FootprintBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"strings", "packed", "index", "cache"})
+    public String representation;
+
+    private String id;
+
+    // loaded dictionary, kept reachable until the heap is measured
+    private Object retained;
+
+    /**
+     * heap measured after the last load
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset () {
+            this.retainedBytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup () throws Exception {
+        this.id = Dictionaries.ensure(this.size, true);
+    }
+
+    @TearDown(Level.Iteration)
+    public void release () {
+        this.retained = null;
+    }
+
+    @Benchmark
+    public Object load (Footprint footprint) throws Exception {
+        this.retained = null;
+        long before = usedHeap();
+        switch (this.representation) {
+            case "strings":
+                this.retained = Dictionary.load(this.id);
+                break;
+            case "packed":
+                this.retained = BinaryDictionary.readPacked(Dictionary.binaryPath(this.id), LoadProgress.NONE);
+                break;
+            case "index":
+                this.retained = Dictionary.loadIndex(this.id);
+                break;
+            default:
+                DictionaryCache cache = new DictionaryCache(1);
+                cache.get(this.id);
+                this.retained = cache;
+        }
+        footprint.retainedBytes = usedHeap() - before;
+        return this.retained;
+    }
+
+    /**
+     * @return heap in use after collecting garbage
+     */
+    private static long usedHeap () {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.hangman.benchmarks;
+
+import com.example.hangman.DictionaryCache;
+import com.example.hangman.Game;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * game hot paths on dictionaries of 20 to 1M words (already loaded in the DictionaryCache)
+ * queries run on a game that just started, when the possible answers are the whole bucket of the word
+ * nextMove() includes updating possible answers and letter counts, either incrementally or by a
+ * full recount (incremental), and rankLetters() should show no allocation with the gc profiler
+ * setGame() should allocate the same few hundred bytes for every size, the possible answers of a
+ * new game refer to the shared dictionary until the first move
+ * display strings are cached between moves (see RenderCache), so getPossibleAnswers() measures a cache hit,
+ * getPossibleAnswersChecked() invalidates the cache first and only compares every position with its rendered
+ * counts, and getPossibleAnswersAfterMove() renders again the positions changed by a move (cache misses)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+    @Param({"20", "1000", "100000", "1000000"})
+    public int size;
+
+    private String id;
+
+    // game that just started, used by the queries
+    private Game game;
+
+    // game restarted by setGame()
+    private Game restarted;
+
+    private final char[] letters = new char[26];
+
+    /**
+     * game started before every nextMove() and the move to make
+     */
+    @State(Scope.Thread)
+    public static class Move {
+        @Param({"true", "false"})
+        public boolean incremental;
+
+        private final Game game = new Game();
+        private char letter;
+
+        @Setup(Level.Trial)
+        public void setupTrial () {
+            this.game.setIncrementalCounts(this.incremental);
+        }
+
+        @Setup(Level.Invocation)
+        public void setup (GameBenchmark benchmark) throws Exception {
+            this.game.setGame(benchmark.id);
+            // most probable letter of the first position
+            char[] letters = new char[26];
+            this.game.rankLetters(0, letters);
+            this.letter = letters[0];
+        }
+    }
+
+    /**
+     * game whose possible answers were rendered before its first move, used by getPossibleAnswersAfterMove()
+     */
+    @State(Scope.Thread)
+    public static class Rendered {
+        private final Game game = new Game();
+        private final char[] letters = new char[26];
+
+        @Setup(Level.Invocation)
+        public void setup (GameBenchmark benchmark) throws Exception {
+            this.game.setGame(benchmark.id);
+            this.game.getPossibleAnswers();
+            this.game.rankLetters(0, this.letters);
+            this.game.nextMove(this.letters[0], (byte) 1);
+        }
+    }
+
+    /**
+     * game played from start to end by playGame()
+     */
+    @State(Scope.Thread)
+    public static class Player {
+        @Param({"true", "false"})
+        public boolean incremental;
+
+        private final Game game = new Game();
+
+        @Setup(Level.Trial)
+        public void setup () {
+            this.game.setIncrementalCounts(this.incremental);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup () throws Exception {
+        this.id = Dictionaries.ensure(this.size, true);
+        DictionaryCache.shared().get(this.id);
+        this.game = new Game();
+        this.game.setGame(this.id);
+        this.restarted = new Game();
+    }
+
+    @Benchmark
+    public Game setGame () throws Exception {
+        this.restarted.setGame(this.id);
+        return this.restarted;
+    }
+
+    @Benchmark
+    public boolean nextMove (Move move) {
+        return move.game.nextMove(move.letter, (byte) 1);
+    }
+
+    /**
+     * start a game and play it to the end, always trying the most probable letter of the first missing position
+     */
+    @Benchmark
+    public int playGame (Player player) throws Exception {
+        Game game = player.game;
+        game.setGame(this.id);
+        byte position = 1;
+        while (!game.getFinished()) {
+            while (game.getEngine().getLetter(position - 1) != '\u0000') {
+                position++;
+            }
+            game.rankLetters(position - 1, this.letters);
+            game.nextMove(this.letters[0], position);
+        }
+        return game.getTotalMoves();
+    }
+
+    @Benchmark
+    public char[][] getProbChars () {
+        return this.game.getProbChars();
+    }
+
+    @Benchmark
+    public String getPossibleAnswers () {
+        return this.game.getPossibleAnswers();
+    }
+
+    @Benchmark
+    public String getPossibleAnswersChecked () {
+        this.game.getRenderCache().invalidate();
+        return this.game.getPossibleAnswers();
+    }
+
+    @Benchmark
+    public String getPossibleAnswersAfterMove (Rendered rendered) {
+        return rendered.game.getPossibleAnswers();
+    }
+
+    @Benchmark
+    public char[] rankLetters () {
+        this.game.rankLetters(0, this.letters);
+        return this.letters;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.hangman.benchmarks;
+
+import com.example.hangman.HistoryStore;
+import com.example.hangman.Round;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * game history queries as the history grows from 10k to 1M rounds, latency should stay flat
+ * rounds cycle through 8 or 5000 dictionaries (every block of the index then contains 1024 different
+ * dictionaries), and the rare dictionary is played once every 100000 rounds
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryBenchmark {
+    private static final int RARE_EVERY = 100_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rounds;
+
+    @Param({"8", "5000"})
+    public int dictionaries;
+
+    private Path directory;
+    private HistoryStore history;
+
+    // time range covering the middle round
+    private long from;
+    private long to;
+
+    @Setup(Level.Trial)
+    public void setup () throws IOException {
+        this.directory = Files.createTempDirectory("hangman-history");
+        this.history = new HistoryStore(this.directory.resolve("history.dat"),
+                this.directory.resolve("history.idx"), 0);
+        for (int i = 0; i < this.rounds; i++) {
+            String dictionary = (i % RARE_EVERY == RARE_EVERY / 2) ? "rare" : "dictionary-" + (i % this.dictionaries);
+            Round round = this.history.append(dictionary, "HANGMAN", 10, 20, (i & 1) == 0);
+            if (i == this.rounds / 2) {
+                this.from = round.getTimestamp();
+                this.to = this.from + 1;
+            }
+        }
+        this.history.sync();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown () throws IOException {
+        this.history.close();
+        Files.deleteIfExists(this.directory.resolve("history.dat"));
+        Files.deleteIfExists(this.directory.resolve("history.idx"));
+        Files.deleteIfExists(this.directory);
+    }
+
+    @Benchmark
+    public List<Round> last () throws IOException {
+        return this.history.last(5);
+    }
+
+    @Benchmark
+    public List<Round> forDictionary () throws IOException {
+        return this.history.forDictionary("dictionary-3", 5);
+    }
+
+    @Benchmark
+    public List<Round> forRareDictionary () throws IOException {
+        return this.history.forDictionary("rare", 5);
+    }
+
+    @Benchmark
+    public List<Round> inTimeRange () throws IOException {
+        return this.history.inTimeRange(this.from, this.to);
+    }
+}
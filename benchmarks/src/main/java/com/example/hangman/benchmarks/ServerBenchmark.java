@@ -0,0 +1,95 @@
+package com.example.hangman.benchmarks;
+
+import com.example.hangman.server.GameServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * load test of the game server: every client thread plays its own games over HTTP
+ * one operation starts a game, makes a move and deletes the game (three requests)
+ * compare throughput across server thread counts (threads) to see scaling with cores,
+ * the number of client threads defaults to the number of cores (change with -t)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class ServerBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private GameServer server;
+    private String dictionary;
+
+    /**
+     * HTTP client of a thread
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @Setup(Level.Trial)
+    public void setup () throws Exception {
+        this.dictionary = Dictionaries.ensure(100_000, true);
+        this.server = new GameServer(0, this.threads);
+        this.server.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown () {
+        this.server.stop();
+    }
+
+    @Benchmark
+    public int playMove (Client client) throws Exception {
+        // the server listens on the loopback address only
+        String games = new URI("http", null, InetAddress.getLoopbackAddress().getHostAddress(),
+                this.server.getPort(), "/games", null, null).toString();
+        JsonObject game = send(client, HttpRequest.newBuilder(URI.create(games))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"dictionary\": \"" + this.dictionary + "\"}")));
+        String url = games + "/" + game.getJsonNumber("id").longValue();
+
+        JsonObject moved = send(client, HttpRequest.newBuilder(URI.create(url + "/moves"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"position\": 0, \"letter\": \"E\"}")));
+        client.client.send(HttpRequest.newBuilder(URI.create(url)).DELETE().build(),
+                HttpResponse.BodyHandlers.discarding());
+        return moved.getInt("candidates");
+    }
+
+    private static JsonObject send (Client client, HttpRequest.Builder request) throws Exception {
+        HttpResponse<String> response = client.client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Server returned " + response.statusCode() + ": " + response.body());
+        }
+        try (JsonReader reader = Json.createReader(new StringReader(response.body()))) {
+            return reader.readObject();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.hangman.benchmarks;
+
+import com.example.hangman.Game;
+import com.example.hangman.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * saving finished games
+ * setRounds() only queues the game for the history writer, so its throughput is bounded by the
+ * writer once the queue is full, setRoundsAndFlush() waits until the game is written and synced
+ * games are saved under DATA_PATH, which is emptied before every trial
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dhangman.data.path=" + SessionBenchmark.DATA_PATH)
+@State(Scope.Benchmark)
+public class SessionBenchmark {
+    static final String DATA_PATH = "target/bench-data";
+
+    private Session session;
+    private Game game;
+
+    @Setup(Level.Trial)
+    public void setup () throws Exception {
+        Path data = Paths.get(DATA_PATH);
+        Files.createDirectories(data);
+        for (String name : new String[]{"history.dat", "history.idx", "stats.txt"}) {
+            Files.deleteIfExists(data.resolve(name));
+        }
+
+        String id = Dictionaries.ensure(1000, true);
+        this.session = new Session();
+        this.session.setDictionary(id);
+        this.game = new Game();
+        this.game.setGame(id);
+        this.game.getSolution();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown () {
+        this.session.close();
+    }
+
+    @Benchmark
+    public void setRounds () {
+        this.session.setRounds(this.game);
+    }
+
+    @Benchmark
+    public void setRoundsAndFlush () {
+        this.session.setRounds(this.game);
+        this.session.flush();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.hangman.benchmarks;
+
+import com.example.hangman.DictionaryCache;
+import com.example.hangman.DictionaryIndex;
+import com.example.hangman.engine.Simulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * engine throughput: self-play games per second of the Simulator for a number of worker threads
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimulatorBenchmark {
+    private static final int GAMES = 20_000;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private DictionaryIndex dictionary;
+    private Simulator simulator;
+
+    @Setup(Level.Trial)
+    public void setup () throws Exception {
+        this.dictionary = DictionaryCache.shared().get(Dictionaries.ensure(this.size, true));
+        this.simulator = new Simulator(this.threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown () {
+        this.simulator.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public Simulator.Report games () {
+        return this.simulator.run(this.dictionary, GAMES);
+    }
+}
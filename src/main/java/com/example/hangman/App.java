@@ -5,7 +5,6 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
@@ -14,19 +13,28 @@ import javafx.scene.text.Font;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 /**
  * class creating GUI for the game
  */
 public class App extends Application {
-    // directory containing dictionaries
-    private static final String DICT_PATH = "medialab/hangman_DICTIONARY-";
+    // dictionaries available to load, kept current in the background
+    private DictionaryCatalog catalog;
+
+    // loads dictionaries off the FX Application Thread (see DictionaryLoadTask)
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "dictionary-loader");
+        t.setDaemon(true);
+        return t;
+    });
 
     @Override
     public void start(Stage stage) throws IOException {
@@ -36,8 +44,17 @@ public class App extends Application {
 
         final double MAX_FONT_SIZE = 30.0;
 
-        // directory containing images
-        final String IMAGE_PATH = "src/main/resources/pictures/";
+        // start decoding hangman images before the first game
+        StageImages.preload();
+
+        // list dictionaries once, then follow changes of the dictionary directory
+        // without a catalog dictionaries can still be loaded by id, they are just not listed
+        try {
+            this.catalog = new DictionaryCatalog();
+        }
+        catch (IOException e) {
+            System.err.println("App.start(): error watching " + Dictionary.PATH + ", dictionaries are not listed");
+        }
 
         // create menu bar
         MenuBar menuBar = new MenuBar();
@@ -47,21 +64,13 @@ public class App extends Application {
 
         // load option loads existing dictionary
         load.setOnAction(e -> {
-            // list of available dictionaries
-            File folder = new File("medialab/");
-            File[] listOfFiles = folder.listFiles();
+            // list of available dictionaries, from the catalog instead of the file system
             List<String> availableDictionaries = new ArrayList<>();
-
-            for (File file : listOfFiles) {
-                if (file.isFile()) {
-                    if (file.getName().startsWith("hangman_DICTIONARY-")) {
-                        availableDictionaries.add(file.getName()
-                                .replace("hangman_DICTIONARY-", "")
-                                .replace(".txt", ""));
-                    }
+            if (this.catalog != null) {
+                for (DictionaryCatalog.Entry entry : this.catalog.list()) {
+                    availableDictionaries.add(entry.getId());
                 }
             }
-            java.util.Collections.sort(availableDictionaries);
 
             String availableDictsString = String.join(", ", availableDictionaries);
 
@@ -91,8 +100,12 @@ public class App extends Application {
 
             HBox d_box = new HBox(d_label_box, d_input_box);
             Label message = new Label();
-            HBox message_box = new HBox(message);
+            // progress of loading, shown while a dictionary loads
+            ProgressBar load_progress = new ProgressBar();
+            load_progress.setVisible(false);
+            HBox message_box = new HBox(message, load_progress);
             message_box.setPadding(new Insets(10));
+            message_box.setSpacing(10);
             message_box.setAlignment(Pos.CENTER);
 
             VBox input = new VBox(avail_dicts_box, d_box, message_box);
@@ -101,34 +114,75 @@ public class App extends Application {
             Button new_dict_button = new Button();
             new_dict_button.setText("Load");
             new_dict_button.setPadding(new Insets(10));
-            HBox button = new HBox(new_dict_button);
+            // button to stop loading
+            Button cancel_button = new Button();
+            cancel_button.setText("Cancel");
+            cancel_button.setPadding(new Insets(10));
+            cancel_button.setDisable(true);
+            HBox button = new HBox(cancel_button, new_dict_button);
             button.setAlignment(Pos.BOTTOM_RIGHT);
             button.setPadding(new Insets(5));
+            button.setSpacing(5);
+
+            // dictionary being loaded by the dialog
+            DictionaryLoadTask[] loading = new DictionaryLoadTask[1];
 
             // button behaviour
-            // loads dictionary specified by user
+            // loads dictionary specified by user in the background, the window stays responsive
             new_dict_button.setOnAction(event -> {
-                try {
-                    String dict_id = dict_num.getText();
-                    File file = new File(DICT_PATH + dict_id + ".txt");
-
-                    if (file.exists()) {
-                        boolean load_flag = session.setDictionary(dict_id);
-                        if (load_flag) {
-                            Stage st = (Stage) new_dict_button.getScene().getWindow();
-                            st.close();
-                        }
-                        // dictionary exception (see Exceptions.java)
-                        else {
-                            message.setText("The dictionary does not fit the criteria");
-                        }
-                    }
-                    else {
-                        message.setText("This dictionary does not exist");
-                    }
+                String dict_id = dict_num.getText();
+                DictionaryCatalog.Entry entry = (this.catalog == null) ? null : this.catalog.get(dict_id);
+                // not listed yet (the catalog is still scanning) or no catalog, the file decides
+                if (entry == null && (dict_id.isEmpty() || !Files.exists(Dictionary.textPath(dict_id)))) {
+                    message.setText("This dictionary does not exist");
+                    return;
                 }
-                catch (Exception exc) {
-                    exc.printStackTrace();
+                // already validated by the catalog, no need to load it
+                if (entry != null && entry.getStatus() == DictionaryCatalog.Status.INVALID) {
+                    message.setText("The dictionary does not fit the criteria");
+                    return;
+                }
+
+                DictionaryLoadTask task = new DictionaryLoadTask(dict_id);
+                loading[0] = task;
+                message.setText("Loading...");
+                load_progress.progressProperty().bind(task.progressProperty());
+                load_progress.setVisible(true);
+                new_dict_button.setDisable(true);
+                cancel_button.setDisable(false);
+
+                task.setOnSucceeded(done -> {
+                    // loaded by the task, so this only selects the dictionary
+                    session.setDictionary(dict_id, task.getValue());
+                    dialog.close();
+                });
+                task.setOnFailed(done -> {
+                    load_progress.setVisible(false);
+                    new_dict_button.setDisable(false);
+                    cancel_button.setDisable(true);
+                    // dictionary exception (see Exceptions.java)
+                    message.setText((task.getException() instanceof FileNotFoundException)
+                            ? "This dictionary does not exist"
+                            : "The dictionary does not fit the criteria");
+                });
+                task.setOnCancelled(done -> {
+                    load_progress.setVisible(false);
+                    new_dict_button.setDisable(false);
+                    cancel_button.setDisable(true);
+                    message.setText("Loading cancelled");
+                });
+                this.loader.execute(task);
+            });
+
+            // stop loading with the button or by closing the window
+            cancel_button.setOnAction(event -> {
+                if (loading[0] != null) {
+                    loading[0].cancel();
+                }
+            });
+            dialog.setOnHidden(event -> {
+                if (loading[0] != null) {
+                    loading[0].cancel();
                 }
             });
 
@@ -220,6 +274,8 @@ public class App extends Application {
         // exit option closes the game
         MenuItem exit = new MenuItem("Exit");
         exit.setOnAction(e -> {
+            // save games still waiting to be written
+            session.close();
             Stage st = (Stage) menuBar.getScene().getWindow();
             st.close();
         });
@@ -247,7 +303,7 @@ public class App extends Application {
 
             VBox popup = new VBox(d_box);
             VBox.setVgrow(d_box, Priority.ALWAYS);
-            Scene popup_scene = new Scene(popup, 500, 200);
+            Scene popup_scene = new Scene(popup, 500, 250);
             dialog.setScene(popup_scene);
             dialog.setTitle("Dictionary information");
             dialog.show();
@@ -298,7 +354,18 @@ public class App extends Application {
         menuBar.getMenus().add(application);
         menuBar.getMenus().add(details);
 
-        VBox menu_box = new VBox(menuBar);
+        // progress of the dictionary loaded for a new game, hidden when not loading
+        ProgressBar start_progress = new ProgressBar();
+        Label start_label = new Label("Loading dictionary...");
+        Button start_cancel = new Button("Cancel");
+        HBox start_box = new HBox(start_label, start_progress, start_cancel);
+        start_box.setAlignment(Pos.CENTER_LEFT);
+        start_box.setPadding(new Insets(5));
+        start_box.setSpacing(10);
+        start_box.setVisible(false);
+        start_box.setManaged(false);
+
+        VBox menu_box = new VBox(menuBar, start_box);
 
         // display total number of words in loaded dictionary
         Label words = new Label();
@@ -327,9 +394,7 @@ public class App extends Application {
         upper.setAlignment(Pos.CENTER);
 
         // display number of tries left with image
-        FileInputStream pic = new FileInputStream(IMAGE_PATH + "stage0.png");
-        Image image = new Image(pic);
-        ImageView tries = new ImageView(image);
+        ImageView tries = new ImageView(StageImages.get(0));
         HBox image_box = new HBox(tries);
         image_box.setPadding(new Insets(10));
 
@@ -485,10 +550,8 @@ public class App extends Application {
                 return;
             }
 
-            // execute move
+            // execute move, possible answers are updated by the move
             boolean game_finished = game.nextMove(char_in, pos_in);
-            // update possible answers
-            game.updateProbabilities();
             // update hangman image
             tries.setImage(game.getTries());
             // update state of word
@@ -537,43 +600,85 @@ public class App extends Application {
         VBox.setVgrow(middle, Priority.ALWAYS);
 
         Scene scene = new Scene(total, 1000, 700);
+        // save games still waiting to be written when the window is closed
+        stage.setOnCloseRequest(e -> session.close());
         stage.setTitle("MediaLab Hangman");
         stage.setScene(scene);
         stage.show();
 
+        // popup window containing message about unsuccessful creation of game
+        Runnable start_error = () -> {
+            final Stage dialog = new Stage();
+            dialog.initModality(Modality.APPLICATION_MODAL);
+            dialog.initOwner(stage);
+            String msg = "Error creating game\n"+
+                    "Load a dictionary first";
+            Label message = new Label(msg);
+            HBox message_box = new HBox(message);
+            message_box.setPadding(new Insets(20));
+            message_box.setAlignment(Pos.CENTER);
+
+            VBox popup = new VBox(message_box);
+            VBox.setVgrow(message_box, Priority.ALWAYS);
+            Scene popup_scene = new Scene(popup, 400, 150);
+            dialog.setScene(popup_scene);
+            dialog.setTitle("Error");
+            dialog.show();
+        };
+
         // start a new game with loaded dictionary
+        // the dictionary is loaded in the background if it is no longer cached
         start.setOnAction(e -> {
-            try {
-                game.setGame(session.getDictionary());
+            if (session.getDictionary() == null) {
+                start_error.run();
+                return;
+            }
+
+            DictionaryLoadTask task = new DictionaryLoadTask(session.getDictionary());
+            start_progress.progressProperty().bind(task.progressProperty());
+            start_box.setVisible(true);
+            start_box.setManaged(true);
+            start.setDisable(true);
+            start_cancel.setOnAction(event -> task.cancel());
+
+            task.setOnSucceeded(done -> {
+                start_box.setVisible(false);
+                start_box.setManaged(false);
+                start.setDisable(false);
+                game.setGame(task.getValue());
                 tries.setImage(game.getTries());
                 word.setText(game.getDisplayedWord());
                 possible_answers.setText(game.getPossibleAnswers());
                 points_num.setText("0");
                 success_percent.setText(game.getSuccessPercentage());
                 word_count.setText(game.getAvailableWordCount());
-            }
-            // popup window containing message about unsuccessful creation of game
-            catch (Exception exc) {
-                final Stage dialog = new Stage();
-                dialog.initModality(Modality.APPLICATION_MODAL);
-                dialog.initOwner(stage);
-                String msg = "Error creating game\n"+
-                        "Load a dictionary first";
-                Label message = new Label(msg);
-                HBox message_box = new HBox(message);
-                message_box.setPadding(new Insets(20));
-                message_box.setAlignment(Pos.CENTER);
-
-                VBox popup = new VBox(message_box);
-                VBox.setVgrow(message_box, Priority.ALWAYS);
-                Scene popup_scene = new Scene(popup, 400, 150);
-                dialog.setScene(popup_scene);
-                dialog.setTitle("Error");
-                dialog.show();
-            }
+            });
+            task.setOnFailed(done -> {
+                start_box.setVisible(false);
+                start_box.setManaged(false);
+                start.setDisable(false);
+                start_error.run();
+            });
+            task.setOnCancelled(done -> {
+                start_box.setVisible(false);
+                start_box.setManaged(false);
+                start.setDisable(false);
+            });
+            this.loader.execute(task);
         });
     }
 
+    /**
+     * stop loading and watching dictionaries when the application exits
+     */
+    @Override
+    public void stop() {
+        this.loader.shutdownNow();
+        if (this.catalog != null) {
+            this.catalog.close();
+        }
+    }
+
     public static void main(String[] args) {
         launch();
     }
@@ -0,0 +1,236 @@
+package com.example.hangman;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+
+/**
+ * compiled binary form of a dictionary, stored next to the text file
+ * layout (big endian):
+ * MAGIC, VERSION, word count, longest word length (max),
+ * histogram of word lengths (max+1 ints), byte offset of every length bucket (max+1 ints),
+ * followed by the words grouped by length and packed as ASCII without separators
+ */
+public class BinaryDictionary {
+    // "HNGD"
+    private static final int MAGIC = 0x484E4744;
+    private static final int VERSION = 1;
+    // magic, version, word count and max length
+    private static final int FIXED_HEADER = 16;
+
+    /**
+     * write set of words in binary format
+     * the file is written to a temporary file first and then moved in place
+     * @param path destination file
+     * @param words unique uppercase words (A-Z)
+     * @throws IOException failed to write file
+     */
+    public static void write (Path path, Set<String> words) throws IOException {
+        int max_length = 0;
+        for (String s : words) {
+            max_length = Math.max(max_length, s.length());
+        }
+
+        // count words of each length
+        int[] histogram = new int[max_length + 1];
+        for (String s : words) {
+            histogram[s.length()]++;
+        }
+
+        // byte offset of each length bucket
+        int header_size = FIXED_HEADER + 8 * (max_length + 1);
+        int[] offsets = new int[max_length + 1];
+        int offset = header_size;
+        for (int len = 0; len <= max_length; len++) {
+            offsets[len] = offset;
+            offset += histogram[len] * len;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(offset);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(words.size());
+        buffer.putInt(max_length);
+        for (int count : histogram) {
+            buffer.putInt(count);
+        }
+        for (int off : offsets) {
+            buffer.putInt(off);
+        }
+
+        // place every word in its bucket
+        int[] cursor = offsets.clone();
+        for (String s : words) {
+            byte[] bytes = s.getBytes(StandardCharsets.US_ASCII);
+            buffer.position(cursor[s.length()]);
+            buffer.put(bytes);
+            cursor[s.length()] += bytes.length;
+        }
+        // buckets were filled out of order, so write the whole buffer
+        buffer.rewind();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * map binary dictionary and read its words
+     * words are returned grouped by length in increasing order
+     * @param path binary dictionary file
+     * @return dictionary words
+     * @throws IOException file missing or not in binary dictionary format
+     */
+    public static String[] read (Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int[] histogram = readHistogram(buffer, channel.size());
+            int max_length = histogram.length - 1;
+
+            int[] offsets = new int[max_length + 1];
+            for (int len = 0; len <= max_length; len++) {
+                offsets[len] = buffer.getInt();
+            }
+
+            String[] dictionary = new String[buffer.getInt(8)];
+            int index = 0;
+            for (int len = 1; len <= max_length; len++) {
+                if (histogram[len] == 0) {
+                    continue;
+                }
+                // copy the whole bucket at once and slice words out of it
+                byte[] bucket = new byte[histogram[len] * len];
+                buffer.position(offsets[len]);
+                buffer.get(bucket);
+                for (int i = 0; i < histogram[len]; i++) {
+                    dictionary[index++] = new String(bucket, i * len, len, StandardCharsets.US_ASCII);
+                }
+            }
+            return dictionary;
+        }
+    }
+
+    /**
+     * map binary dictionary and pack its words without creating a String per word
+     * @param path binary dictionary file
+     * @param progress receives the fraction of words read after every length bucket
+     * @return words[length] words with this length (see PackedWords)
+     * @throws IOException file missing, not in binary dictionary format or containing letters other than A-Z
+     */
+    public static PackedWords[] readPacked (Path path, LoadProgress progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int[] histogram = readHistogram(buffer, channel.size());
+            int max_length = histogram.length - 1;
+
+            int[] offsets = new int[max_length + 1];
+            for (int len = 0; len <= max_length; len++) {
+                offsets[len] = buffer.getInt();
+            }
+
+            PackedWords[] words = new PackedWords[max_length + 1];
+            double total = Math.max(1, buffer.getInt(8));
+            long read = 0;
+            for (int len = 0; len <= max_length; len++) {
+                words[len] = new PackedWords(len, histogram[len]);
+                read += histogram[len];
+                if (histogram[len] == 0 || len == 0) {
+                    continue;
+                }
+                // copy the whole bucket at once and pack words out of it
+                byte[] bucket = new byte[histogram[len] * len];
+                buffer.position(offsets[len]);
+                buffer.get(bucket);
+                for (int i = 0; i < histogram[len]; i++) {
+                    if (!words[len].set(i, bucket, i * len)) {
+                        throw new IOException("Corrupt binary dictionary word");
+                    }
+                }
+                progress.update(read / total);
+            }
+            return words;
+        }
+    }
+
+    /**
+     * read only the length histogram of a binary dictionary
+     * @param path binary dictionary file
+     * @return number of words of each length (index is the length)
+     * @throws IOException file missing or not in binary dictionary format
+     */
+    public static int[] histogram (Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return readHistogram(buffer, channel.size());
+        }
+    }
+
+    /**
+     * binary file exists and is at least as recent as the text file it was compiled from
+     * @param binary binary dictionary file
+     * @param text text dictionary file
+     * @return binary file can be used instead of text file
+     */
+    public static boolean isFresh (Path binary, Path text) {
+        File bin = binary.toFile();
+        File txt = text.toFile();
+        return bin.isFile() && txt.isFile() && bin.lastModified() >= txt.lastModified();
+    }
+
+    /**
+     * check header and read histogram, leaves buffer positioned at the offsets table
+     * counts must not be negative and every bucket must start where the previous one ends and lie within the file,
+     * so that a corrupt sidecar is reported as an IOException before any bucket is read
+     */
+    private static int[] readHistogram (ByteBuffer buffer, long size) throws IOException {
+        if (size < FIXED_HEADER || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a binary dictionary");
+        }
+        int word_count = buffer.getInt();
+        int max_length = buffer.getInt();
+        if (word_count < 0 || max_length < 0 || FIXED_HEADER + 8L * (max_length + 1) > size) {
+            throw new IOException("Corrupt binary dictionary header");
+        }
+
+        int[] histogram = new int[max_length + 1];
+        long total = 0;
+        long bytes = 0;
+        for (int len = 0; len <= max_length; len++) {
+            histogram[len] = buffer.getInt();
+            if (histogram[len] < 0) {
+                throw new IOException("Corrupt binary dictionary header");
+            }
+            total += histogram[len];
+            bytes += (long) histogram[len] * len;
+        }
+        long header_size = FIXED_HEADER + 8L * (max_length + 1);
+        if (total != word_count || header_size + bytes > size) {
+            throw new IOException("Corrupt binary dictionary header");
+        }
+
+        // buckets are stored back to back after the header
+        long expected = header_size;
+        int table = buffer.position();
+        for (int len = 0; len <= max_length; len++) {
+            long offset = buffer.getInt(table + 4 * len);
+            if (offset != expected || offset + (long) histogram[len] * len > size) {
+                throw new IOException("Corrupt binary dictionary offsets");
+            }
+            expected = offset + (long) histogram[len] * len;
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.hangman;
+
+import java.util.Arrays;
+
+/**
+ * possible answers of a game stored as a bitset over the words of a DictionaryIndex bucket
+ * a correct guess keeps the words in the letter's mask (AND), a wrong guess removes them (AND-NOT)
+ * and the number of possible answers is the population count of the bitset
+ * letter counts are updated from the packed letters of the removed (or kept) words, so only the filtering
+ * mask is read from the inverted index
+ * a new set refers to the shared bucket only (every word is possible) and allocates its bitset
+ * on the first call removing words, so starting a game takes constant time and memory
+ */
+public class CandidateSet {
+    private final LetterMasks masks;
+
+    // bit i is set while the i-th word of the bucket is a possible answer
+    // null while every word of the bucket is possible
+    private long[] bits;
+
+    // number of set bits
+    private int count;
+
+    // scratch buffers of filter(): words removed by the last call, blocks containing them
+    // and the mask of letters stored as gaps (see LetterMasks.mask)
+    private long[] removed;
+    private int[] dirty;
+    private long[] mask_buffer;
+
+    // compare incrementally updated counts with a full recount after every filter()
+    private boolean validate;
+
+    /**
+     * create set containing every word of the bucket
+     * @param masks masks of the bucket
+     */
+    public CandidateSet (LetterMasks masks) {
+        this.masks = masks;
+        this.count = masks.size();
+    }
+
+    /**
+     * enable checking incrementally updated counts against a full recount (slow, meant for tests)
+     * @param validate check counts after every filter()
+     */
+    public void setValidation(boolean validate) {
+        this.validate = validate;
+    }
+
+    /**
+     * keep only words with the letter in the position
+     * @param position position in word (starting from 0)
+     * @param letter letter from 'A' to 'Z'
+     * @return number of removed words
+     */
+    public int keep(int position, char letter) {
+        return filter(position, letter, true, null);
+    }
+
+    /**
+     * remove words with the letter in the position
+     * @param position position in word (starting from 0)
+     * @param letter letter from 'A' to 'Z'
+     * @return number of removed words
+     */
+    public int remove(int position, char letter) {
+        return filter(position, letter, false, null);
+    }
+
+    /**
+     * keep or remove words with the letter in the position and update the [position][letter] counts
+     * of the possible answers from the removed words only
+     * when more words are removed than kept, the counts are recounted from the kept words instead
+     * @param position position in word (starting from 0)
+     * @param letter letter from 'A' to 'Z'
+     * @param keep keep (correct guess) or remove (wrong guess) the words with the letter
+     * @param counts counts of the possible answers before the call, updated in place
+     * @return number of removed words
+     */
+    public int filter(int position, char letter, boolean keep, int[][] counts) {
+        materialize();
+        long[] mask = this.masks.mask(position, letter - 'A', this.mask_buffer);
+        long[] removed = this.removed;
+        int[] dirty = this.dirty;
+        int dirty_count = 0;
+        int remaining = 0;
+
+        // filter and remember which words were removed
+        for (int i = 0; i < this.bits.length; i++) {
+            long old_bits = this.bits[i];
+            long new_bits = keep ? old_bits & mask[i] : old_bits & ~mask[i];
+            this.bits[i] = new_bits;
+            remaining += Long.bitCount(new_bits);
+            if (old_bits != new_bits) {
+                removed[i] = old_bits & ~new_bits;
+                dirty[dirty_count++] = i;
+            }
+        }
+        int removed_count = this.count - remaining;
+        this.count = remaining;
+
+        if (counts == null || removed_count == 0) {
+            return removed_count;
+        }
+
+        if (remaining <= removed_count) {
+            countAll(counts);
+        }
+        else {
+            // subtract the letters of the removed words from the counts
+            PackedWords words = this.masks.getWords();
+            for (int d = 0; d < dirty_count; d++) {
+                int i = dirty[d];
+                long block = removed[i];
+                while (block != 0L) {
+                    int word = (i << 6) + Long.numberOfTrailingZeros(block);
+                    block &= block - 1;
+                    words.addLetters(word, counts, -1);
+                }
+            }
+        }
+
+        if (this.validate) {
+            verify(counts);
+        }
+        return removed_count;
+    }
+
+    /**
+     * remove every word
+     */
+    public void clear() {
+        materialize();
+        for (int i = 0; i < this.bits.length; i++) {
+            this.bits[i] = 0L;
+        }
+        this.count = 0;
+    }
+
+    /**
+     * @return number of possible answers
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * @param position position in word (starting from 0)
+     * @param letter_index letter index (0 is 'A', 25 is 'Z')
+     * @return number of possible answers with the letter in the position
+     */
+    public int count(int position, int letter_index) {
+        return this.masks.count(position, letter_index, this.bits);
+    }
+
+    /**
+     * fill [position][letter] counts of the possible answers from their packed letters
+     * @param counts matrix to fill, one row per position with 26 columns
+     */
+    public void countAll(int[][] counts) {
+        for (int[] row : counts) {
+            Arrays.fill(row, 0);
+        }
+        PackedWords words = this.masks.getWords();
+        if (this.bits == null) {
+            for (int word = 0; word < words.size(); word++) {
+                words.addLetters(word, counts, 1);
+            }
+            return;
+        }
+        for (int i = 0; i < this.bits.length; i++) {
+            long block = this.bits[i];
+            while (block != 0L) {
+                int word = (i << 6) + Long.numberOfTrailingZeros(block);
+                block &= block - 1;
+                words.addLetters(word, counts, 1);
+            }
+        }
+    }
+
+    /**
+     * allocate the bitset (every word of the bucket) and scratch buffers before the first change
+     */
+    private void materialize() {
+        if (this.bits != null) {
+            return;
+        }
+        this.bits = new long[(this.masks.size() + 63) >>> 6];
+        int full = this.masks.size() >>> 6;
+        for (int i = 0; i < full; i++) {
+            this.bits[i] = -1L;
+        }
+        if ((this.masks.size() & 63) != 0) {
+            this.bits[full] = (1L << this.masks.size()) - 1;
+        }
+        this.removed = new long[this.bits.length];
+        this.dirty = new int[this.bits.length];
+        this.mask_buffer = new long[this.bits.length];
+    }
+
+    /**
+     * compare counts with a recount of the possible answers through the inverted index
+     * @throws IllegalStateException counts don't match
+     */
+    private void verify(int[][] counts) {
+        for (int pos = 0; pos < counts.length; pos++) {
+            for (int l = 0; l < 26; l++) {
+                int expected = count(pos, l);
+                if (expected != counts[pos][l]) {
+                    throw new IllegalStateException("CandidateSet: count of " + (char) ('A' + l) +
+                            " in position " + pos + " is " + counts[pos][l] + " instead of " + expected);
+                }
+            }
+        }
+    }
+}
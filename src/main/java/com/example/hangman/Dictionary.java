@@ -3,20 +3,35 @@ package com.example.hangman;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Consumer;
 import javax.json.*;
 
+import com.example.hangman.metrics.Metrics;
+
 /**
  * class providing methods to create and load dictionaries
  */
 public class Dictionary {
     // path of dictionaries
-    private static final String PATH = "medialab/";
+    static final String PATH = "medialab/";
+    // directory of dictionaries, PATH unless changed by setDirectory()
+    private static volatile Path directory = Paths.get(PATH);
+    // url of OpenLibrary works
+    public static final String OPEN_LIBRARY_URL = "https://openlibrary.org/works/";
+    // text dictionaries larger than this (in bytes) are validated in bounded memory mode
+    private static final long EXACT_VALIDATION_LIMIT = 64L * 1024 * 1024;
+    // memory used by the bloom filter of bounded memory validation
+    private static final int BLOOM_FILTER_BYTES = 16 * 1024 * 1024;
+    // lines read between progress reports of loadIndex()
+    private static final int PROGRESS_LINES = 16384;
 
     /**
      * Creates a text file (dictionary) in PATH containing the words in the
@@ -28,11 +43,65 @@ public class Dictionary {
      * @throws Exception creation of dictionary failed
      */
     public static void add (String dictionary_id, String open_library_id) throws Exception {
+        add(dictionary_id, open_library_id, OPEN_LIBRARY_URL);
+    }
+
+    /**
+     * Creates a dictionary from a work served by an OpenLibrary compatible server
+     *
+     * @param dictionary_id id of the created dictionary (arbitrary)
+     * @param open_library_id id of book in OpenLibrary
+     * @param base_url url of works, the work is fetched from base_url + open_library_id + ".json"
+     * @throws Exception creation of dictionary failed
+     */
+    public static void add (String dictionary_id, String open_library_id, String base_url) throws Exception {
+        String description = fetchDescription(base_url, open_library_id);
+        if (description == null) {
+            System.err.println("This work does not contain 'description' field");
+            return;
+        }
+
+        HashSet<String> unique_words = extractWords(description);
+        try {
+            save(dictionary_id, unique_words);
+        }
+        catch (IOException e){
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * read "description" value of a work, served from WorkCache when the work was fetched recently
+     * @param base_url url of works
+     * @param open_library_id id of book in OpenLibrary
+     * @return description of work or null if the work doesn't have one
+     * @throws IOException failed to fetch work (or work not cached in offline mode)
+     */
+    static String fetchDescription (String base_url, String open_library_id) throws IOException {
+        return fetchDescription(base_url, open_library_id, WorkCache.shared());
+    }
+
+    /**
+     * read "description" value of a work like fetchDescription(), through the given cache
+     * @param base_url url of works
+     * @param open_library_id id of book in OpenLibrary
+     * @param cache cache of works
+     * @return description of work or null if the work doesn't have one
+     * @throws IOException failed to fetch work (or work not cached in offline mode)
+     */
+    static String fetchDescription (String base_url, String open_library_id, WorkCache cache) throws IOException {
+        return cache.get(base_url, open_library_id, () -> fetchRemote(base_url, open_library_id));
+    }
+
+    /**
+     * fetch work and read its "description" value
+     */
+    private static String fetchRemote (String base_url, String open_library_id) throws IOException {
 
         // set the url containing the requested book's json object
         URL url;
         try {
-            String u = "https://openlibrary.org/works/" + open_library_id + ".json";
+            String u = base_url + open_library_id + ".json";
             url = new URL(u);
         }
         catch (MalformedURLException e){
@@ -63,8 +132,7 @@ public class Dictionary {
                     counter++;
                 }
                 if (counter == 2) {
-                    System.err.println("This work does not contain 'description' field");
-                    return;
+                    return null;
                 }
                 description = description.replace("-", " ");
             }
@@ -72,11 +140,18 @@ public class Dictionary {
             System.err.println("Dictionary.add(): error creating dictionary");
             throw e;
         }
+        return description;
+    }
 
-        // scan string containing description
-        // remove punctuation and numbers and convert to uppercase
-        // ignore words with less than 6 letters
-        // store in set to keep unique words
+    /**
+     * scan string containing description
+     * remove punctuation and numbers and convert to uppercase
+     * ignore words with less than 6 letters
+     * store in set to keep unique words
+     * @param description description of a work
+     * @return unique words of description
+     */
+    static HashSet<String> extractWords (String description) {
         Scanner scanner = new Scanner(description);
         HashSet<String> unique_words = new HashSet<>();
         while (scanner.hasNext()) {
@@ -86,10 +161,18 @@ public class Dictionary {
             }
         }
         scanner.close();
+        return unique_words;
+    }
 
+    /**
+     * store words in the text file of a dictionary and compile its binary sidecar
+     * @param dictionary_id id of the created dictionary
+     * @param unique_words words of dictionary
+     * @throws IOException failed to write text file
+     */
+    static void save (String dictionary_id, HashSet<String> unique_words) throws IOException {
         // specify destination file path to save dictionary
-        Path relative_path = Paths.get(PATH + "hangman_DICTIONARY-" + dictionary_id + ".txt");
-        Path absolute_path = relative_path.toAbsolutePath();
+        Path absolute_path = textPath(dictionary_id);
         String filename = absolute_path.toString();
 
         // set_size is used to not put newline after last word in set
@@ -107,13 +190,34 @@ public class Dictionary {
                 }
             }
         }
-        catch (IOException e){
-            e.printStackTrace();
+        finally {
+            // a dictionary with the same id may already be cached
+            DictionaryCache.shared().invalidate(dictionary_id);
+        }
+
+        // word length brackets of the new dictionary
+        int[] histogram = new int[0];
+        for (String s : unique_words) {
+            if (s.length() >= histogram.length) {
+                histogram = Arrays.copyOf(histogram, s.length() + 1);
+            }
+            histogram[s.length()]++;
+        }
+        StatsStore.shared().recordDictionary(dictionary_id, histogram);
+
+        // compile binary sidecar so that loading doesn't have to parse the text file
+        // the text file stays the source of truth, so failing here is not fatal
+        try {
+            BinaryDictionary.write(binaryPath(dictionary_id), unique_words);
+        }
+        catch (IOException e) {
+            System.err.println("Dictionary.add(): error creating binary dictionary");
         }
     }
 
     /**
      * Loads an existing dictionary from PATH given its id and returns its contents
+     * If a fresh binary sidecar (see BinaryDictionary) exists it is memory-mapped instead of parsing the text file
      *
      * @param dictionary_id id of existing dictionary
      * @return dictionary words
@@ -127,66 +231,278 @@ public class Dictionary {
     throws Exceptions.InvalidCountException, Exceptions.InvalidRangeException, 
     Exceptions.UnbalancedException, Exceptions.UndersizeException, FileNotFoundException {
 
-        // specify dictionary file path
-        Path relative_path = Paths.get(PATH + "hangman_DICTIONARY-" + dictionary_id + ".txt");
-        Path absolute_path = relative_path.toAbsolutePath();
-        String filename = absolute_path.toString();
+        // specify dictionary file paths
+        Path text_path = textPath(dictionary_id);
+        Path binary_path = binaryPath(dictionary_id);
 
-        String temp;
-        List<String> file_contents = new ArrayList<>();
-        try (Scanner scanner = new Scanner(new File(filename))){
-            while (scanner.hasNextLine()) {
-                temp = scanner.nextLine();
-                file_contents.add(temp);
+        // load time and validation failures are published by Metrics
+        long start = System.nanoTime();
+        try {
+            String[] words = null;
+            if (BinaryDictionary.isFresh(binary_path, text_path)) {
+                try {
+                    words = loadBinary(dictionary_id, binary_path);
+                }
+                catch (IOException e) {
+                    // unreadable sidecar, fall back to the text file
+                    System.err.println("Dictionary.load(): ignoring binary dictionary with id: " + dictionary_id);
+                }
+            }
+            if (words == null) {
+                words = loadText(dictionary_id, text_path, LoadProgress.NONE);
             }
+            Metrics.DICTIONARY_LOAD.record(System.nanoTime() - start);
+            return words;
         }
-        catch (IOException e) {
-            throw new FileNotFoundException();
+        catch (BaseException e) {
+            Metrics.validationFailed(e);
+            throw e;
         }
+    }
 
-        String[] dictionary = file_contents.toArray(new String[0]);
+    /**
+     * Loads an existing dictionary like load() and indexes it by word length
+     * Words of a fresh binary sidecar are packed straight from the mapped file (see PackedWords),
+     * so no String is created per word
+     *
+     * @param dictionary_id id of existing dictionary
+     * @return indexed dictionary words
+     * @throws Exceptions.InvalidCountException duplicate word in dictionary
+     * @throws Exceptions.InvalidRangeException word with less than six letters in dictionary
+     * @throws Exceptions.UnbalancedException dictionary consists of more than 80% of small words (fewer than nine letters)
+     * @throws Exceptions.UndersizeException dictionary contains fewer than 20 words
+     * @throws FileNotFoundException no dictionary matching given id
+     */
+    public static DictionaryIndex loadIndex (String dictionary_id)
+    throws Exceptions.InvalidCountException, Exceptions.InvalidRangeException,
+    Exceptions.UnbalancedException, Exceptions.UndersizeException, FileNotFoundException {
+        return loadIndex(dictionary_id, LoadProgress.NONE);
+    }
 
-        // check that the dictionary contains only unique words
-        HashSet<String> words = new HashSet<>();
-        // flag to check if dictionary contains words with less than 6 letters
-        boolean undersized = false;
-        // count of words with more than 8 letters
-        int big_words = 0;
+    /**
+     * Loads and indexes an existing dictionary like loadIndex(), reporting progress while reading and indexing
+     *
+     * @param dictionary_id id of existing dictionary
+     * @param progress receives the fraction of the work done, may cancel loading by throwing CancellationException
+     * @return indexed dictionary words
+     * @throws Exceptions.InvalidCountException duplicate word in dictionary
+     * @throws Exceptions.InvalidRangeException word with less than six letters in dictionary
+     * @throws Exceptions.UnbalancedException dictionary consists of more than 80% of small words (fewer than nine letters)
+     * @throws Exceptions.UndersizeException dictionary contains fewer than 20 words
+     * @throws FileNotFoundException no dictionary matching given id
+     * @throws java.util.concurrent.CancellationException loading was cancelled by progress
+     */
+    public static DictionaryIndex loadIndex (String dictionary_id, LoadProgress progress)
+    throws Exceptions.InvalidCountException, Exceptions.InvalidRangeException,
+    Exceptions.UnbalancedException, Exceptions.UndersizeException, FileNotFoundException {
 
-        for (String s : dictionary) {
-            words.add(s);
+        // specify dictionary file paths
+        Path text_path = textPath(dictionary_id);
+        Path binary_path = binaryPath(dictionary_id);
 
-            if (s.length() < 6) {
-                undersized = true;
+        // load time and validation failures are published by Metrics
+        long start = System.nanoTime();
+        try {
+            DictionaryIndex index = null;
+            if (BinaryDictionary.isFresh(binary_path, text_path)) {
+                try {
+                    validateBinary(dictionary_id, binary_path);
+                    index = new DictionaryIndex(BinaryDictionary.readPacked(binary_path, progress.range(0, 0.5)),
+                            progress.range(0.5, 1));
+                }
+                catch (IOException e) {
+                    // unreadable sidecar, fall back to the text file
+                    System.err.println("Dictionary.loadIndex(): ignoring binary dictionary with id: " + dictionary_id);
+                }
             }
-            else if (s.length() > 8) {
-                big_words++;
+            if (index == null) {
+                // reading and validating the text takes most of the time
+                // words are packed as they are read, no String is kept per word
+                PackedWords.Builder words = new PackedWords.Builder();
+                readText(dictionary_id, text_path, progress.range(0, 0.8), words::add);
+                index = new DictionaryIndex(words.build(), progress.range(0.8, 1));
             }
+            Metrics.DICTIONARY_LOAD.record(System.nanoTime() - start);
+            return index;
+        }
+        catch (BaseException e) {
+            Metrics.validationFailed(e);
+            throw e;
         }
+    }
+
+    /**
+     * @param dictionary_id id of dictionary
+     * @return absolute path of text dictionary file
+     */
+    public static Path textPath (String dictionary_id) {
+        return directory.resolve("hangman_DICTIONARY-" + dictionary_id + ".txt").toAbsolutePath();
+    }
+
+    /**
+     * @param dictionary_id id of dictionary
+     * @return absolute path of binary dictionary file
+     */
+    public static Path binaryPath (String dictionary_id) {
+        return directory.resolve("hangman_DICTIONARY-" + dictionary_id + ".bin").toAbsolutePath();
+    }
+
+    /**
+     * @return directory of dictionaries
+     */
+    static Path getDirectory () {
+        return directory;
+    }
+
+    /**
+     * keep dictionaries in another directory than PATH, meant for tests
+     * @param path directory of dictionaries
+     */
+    static void setDirectory (Path path) {
+        directory = path;
+    }
 
-        // check if dictionary complies with all restraints
+    /**
+     * load dictionary from its binary sidecar
+     * words in the sidecar are unique by construction (written from a set), so only lengths are checked
+     */
+    private static String[] loadBinary (String dictionary_id, Path binary_path)
+    throws IOException, Exceptions.InvalidRangeException,
+    Exceptions.UnbalancedException, Exceptions.UndersizeException {
+
+        // validate from the length histogram before decoding any word
+        validateBinary(dictionary_id, binary_path);
+        return BinaryDictionary.read(binary_path);
+    }
 
-        if (words.size() != dictionary.length) {
-            throw new Exceptions.InvalidCountException(
-                "Duplicate word in dictionary with id: " + dictionary_id);
+    /**
+     * validate binary sidecar from its length histogram
+     */
+    private static void validateBinary (String dictionary_id, Path binary_path)
+    throws IOException, Exceptions.InvalidRangeException,
+    Exceptions.UnbalancedException, Exceptions.UndersizeException {
+
+        int[] histogram = BinaryDictionary.histogram(binary_path);
+        DictionaryValidator validator = new DictionaryValidator(dictionary_id);
+        for (int len = 0; len < histogram.length; len++) {
+            validator.acceptBucket(len, histogram[len]);
         }
-        
-        if (words.size() < 20) {
-            throw new Exceptions.UndersizeException(
-                "Total dictionary size less than minimum of 20 words");
+        validator.finish();
+    }
+
+    /**
+     * Validates an existing dictionary without keeping its words, meant for listing dictionaries (see DictionaryCatalog)
+     * A fresh binary sidecar is validated from its length histogram only, otherwise the text file is read line by line
+     *
+     * @param dictionary_id id of existing dictionary
+     * @return number of words in dictionary
+     * @throws Exceptions.InvalidCountException duplicate word in dictionary
+     * @throws Exceptions.InvalidRangeException word with less than six letters in dictionary
+     * @throws Exceptions.UnbalancedException dictionary consists of more than 80% of small words (fewer than nine letters)
+     * @throws Exceptions.UndersizeException dictionary contains fewer than 20 words
+     * @throws FileNotFoundException no dictionary matching given id
+     */
+    static int validate (String dictionary_id)
+    throws Exceptions.InvalidCountException, Exceptions.InvalidRangeException,
+    Exceptions.UnbalancedException, Exceptions.UndersizeException, FileNotFoundException {
+
+        // specify dictionary file paths
+        Path text_path = textPath(dictionary_id);
+        Path binary_path = binaryPath(dictionary_id);
+
+        if (BinaryDictionary.isFresh(binary_path, text_path)) {
+            try {
+                validateBinary(dictionary_id, binary_path);
+                int count = 0;
+                for (int words : BinaryDictionary.histogram(binary_path)) {
+                    count += words;
+                }
+                return count;
+            }
+            catch (IOException e) {
+                // unreadable sidecar, fall back to the text file
+            }
         }
+        return readText(dictionary_id, text_path, LoadProgress.NONE, word -> { });
+    }
+
+    /**
+     * load dictionary from its text file, validating every line as it is read
+     */
+    private static String[] loadText (String dictionary_id, Path text_path, LoadProgress progress)
+    throws Exceptions.InvalidCountException, Exceptions.InvalidRangeException,
+    Exceptions.UnbalancedException, Exceptions.UndersizeException, FileNotFoundException {
+
+        List<String> file_contents = new ArrayList<>();
+        readText(dictionary_id, text_path, progress, file_contents::add);
+        return file_contents.toArray(new String[0]);
+    }
 
-        if (undersized) {
-            throw new Exceptions.InvalidRangeException(
-                "Word with less than 6 letters contained in dictionary with id: " + dictionary_id);
+    /**
+     * read and validate every line of a text dictionary
+     * large files are validated in bounded memory mode (see DictionaryValidator), then memory use is bounded
+     * by what words keeps: loadIndex() packs them (see PackedWords.Builder), load() keeps every String
+     * progress is reported every PROGRESS_LINES lines
+     * @param words receives every word of the dictionary as it is read
+     * @return number of words in dictionary
+     */
+    private static int readText (String dictionary_id, Path text_path, LoadProgress progress, Consumer<String> words)
+    throws Exceptions.InvalidCountException, Exceptions.InvalidRangeException,
+    Exceptions.UnbalancedException, Exceptions.UndersizeException, FileNotFoundException {
+
+        File file = text_path.toFile();
+        if (!file.isFile()) {
+            throw new FileNotFoundException();
+        }
+
+        boolean bounded = file.length() > EXACT_VALIDATION_LIMIT;
+        DictionaryValidator validator = bounded
+                ? new DictionaryValidator(dictionary_id, DictionaryValidator.Mode.BOUNDED, BLOOM_FILTER_BYTES)
+                : new DictionaryValidator(dictionary_id);
+
+        // bounded mode may read the file twice, the second pass is the second half of the work
+        LoadProgress reading = bounded ? progress.range(0, 0.5) : progress;
+        double bytes = Math.max(1, file.length());
+        long read = 0;
+
+        String line;
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(text_path)) {
+            while ((line = reader.readLine()) != null) {
+                // stops at the first duplicate or short word
+                validator.accept(line);
+                words.accept(line);
+                read += line.length() + 1;
+                if (++count % PROGRESS_LINES == 0) {
+                    reading.update(read / bytes);
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new FileNotFoundException();
         }
 
-        if (big_words * 5 < words.size()) {
-            // raise UnbalancedException
-            throw new Exceptions.UnbalancedException(
-                "Words with less than 9 letters are more than 80% of words in dictionary with id: " + dictionary_id);
+        // bounded mode: check words that may be duplicates with a second pass
+        if (validator.needsConfirmation()) {
+            LoadProgress confirming = progress.range(0.5, 1);
+            int line_number = 0;
+            read = 0;
+            try (BufferedReader reader = Files.newBufferedReader(text_path)) {
+                while ((line = reader.readLine()) != null) {
+                    validator.confirm(line, ++line_number);
+                    read += line.length() + 1;
+                    if (line_number % PROGRESS_LINES == 0) {
+                        confirming.update(read / bytes);
+                    }
+                }
+            }
+            catch (IOException e) {
+                throw new FileNotFoundException();
+            }
         }
-        
-        return dictionary;
+
+        validator.finish();
+        progress.update(1);
+        return count;
     }
 }
@@ -0,0 +1,174 @@
+package com.example.hangman;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * builds many dictionaries concurrently from (dictionary id, OpenLibrary id) pairs
+ * works are fetched and tokenized in parallel by a bounded pool of worker threads
+ * and every pair gets its own result, so one failing work doesn't stop the batch
+ */
+public class DictionaryBatchBuilder {
+    // url of works, a work is fetched from base_url + open_library_id + ".json"
+    private final String base_url;
+
+    // maximum number of works fetched at the same time
+    private final int concurrency;
+
+    // cache of fetched works
+    private final WorkCache cache;
+
+    /**
+     * pair of ids describing a dictionary to build
+     */
+    public static class Item {
+        private final String dictionary_id;
+        private final String open_library_id;
+
+        /**
+         * @param dictionary_id id of the created dictionary (arbitrary)
+         * @param open_library_id id of book in OpenLibrary
+         */
+        public Item(String dictionary_id, String open_library_id) {
+            this.dictionary_id = dictionary_id;
+            this.open_library_id = open_library_id;
+        }
+
+        public String getDictionaryId() {
+            return this.dictionary_id;
+        }
+
+        public String getOpenLibraryId() {
+            return this.open_library_id;
+        }
+    }
+
+    /**
+     * outcome of building one dictionary
+     */
+    public static class Result {
+        private final Item item;
+        private final int word_count;
+        private final Exception error;
+
+        private Result(Item item, int word_count, Exception error) {
+            this.item = item;
+            this.word_count = word_count;
+            this.error = error;
+        }
+
+        public Item getItem() {
+            return this.item;
+        }
+
+        /**
+         * @return dictionary was created
+         */
+        public boolean isSuccess() {
+            return this.error == null;
+        }
+
+        /**
+         * @return number of words written to the dictionary
+         */
+        public int getWordCount() {
+            return this.word_count;
+        }
+
+        /**
+         * @return reason the dictionary wasn't created, null on success
+         */
+        public Exception getError() {
+            return this.error;
+        }
+    }
+
+    /**
+     * builder fetching works from OpenLibrary
+     * @param concurrency maximum number of works fetched at the same time
+     */
+    public DictionaryBatchBuilder (int concurrency) {
+        this(Dictionary.OPEN_LIBRARY_URL, concurrency);
+    }
+
+    /**
+     * @param base_url url of works (for example a local server serving <id>.json files)
+     * @param concurrency maximum number of works fetched at the same time
+     */
+    public DictionaryBatchBuilder (String base_url, int concurrency) {
+        this(base_url, concurrency, WorkCache.shared());
+    }
+
+    /**
+     * @param base_url url of works (for example a local server serving <id>.json files)
+     * @param concurrency maximum number of works fetched at the same time
+     * @param cache cache of fetched works
+     */
+    public DictionaryBatchBuilder (String base_url, int concurrency, WorkCache cache) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("DictionaryBatchBuilder concurrency must be positive");
+        }
+        this.base_url = base_url;
+        this.concurrency = concurrency;
+        this.cache = cache;
+    }
+
+    /**
+     * build every dictionary of the batch and wait for all of them
+     * @param items dictionaries to build
+     * @return one result per item, in the same order as the items
+     * @throws InterruptedException interrupted while waiting for the batch
+     */
+    public List<Result> build (List<Item> items) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.concurrency, Math.max(1, items.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dictionary-builder");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            List<Future<Result>> futures = new ArrayList<>(items.size());
+            for (Item item : items) {
+                futures.add(executor.submit(() -> buildOne(item)));
+            }
+
+            List<Result> results = new ArrayList<>(items.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                }
+                catch (ExecutionException e) {
+                    results.add(new Result(items.get(i), 0, new Exception(e.getCause())));
+                }
+            }
+            return results;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * fetch, tokenize and save one dictionary
+     */
+    private Result buildOne (Item item) {
+        try {
+            String description = Dictionary.fetchDescription(this.base_url, item.getOpenLibraryId(), this.cache);
+            if (description == null) {
+                return new Result(item, 0,
+                        new Exception("Work " + item.getOpenLibraryId() + " does not contain 'description' field"));
+            }
+            HashSet<String> words = Dictionary.extractWords(description);
+            Dictionary.save(item.getDictionaryId(), words);
+            return new Result(item, words.size(), null);
+        }
+        catch (Exception e) {
+            return new Result(item, 0, e);
+        }
+    }
+}
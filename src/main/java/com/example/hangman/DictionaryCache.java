@@ -0,0 +1,312 @@
+package com.example.hangman;
+
+import java.io.FileNotFoundException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * in-process cache of loaded and validated dictionaries shared by Session and Game
+ * entries are keyed by dictionary id and the modification time of the dictionary file,
+ * so an edited dictionary is loaded again, and the least recently used entry is evicted
+ * once more than the allowed number of dictionaries are cached
+ * the modification time is checked at most once every CHECK_INTERVAL per dictionary (Dictionary.save()
+ * drops the dictionaries it writes right away), and dictionaries are loaded outside the lock of the cache:
+ * concurrent requests for the same dictionary wait for a single load, other dictionaries are not blocked
+ * a load that overlaps invalidate() or a change of the file returns its index without caching it
+ */
+public class DictionaryCache {
+    // number of dictionaries kept by the shared cache
+    private static final int DEFAULT_CAPACITY = 8;
+
+    // time between two checks of the modification time of a cached dictionary
+    private static final long CHECK_INTERVAL = TimeUnit.SECONDS.toNanos(2);
+
+    private static final DictionaryCache SHARED = new DictionaryCache(DEFAULT_CAPACITY);
+
+    // maximum number of cached dictionaries
+    private final int capacity;
+
+    // dictionary id -> cached dictionary, in access order, guarded by itself
+    private final LinkedHashMap<String, CachedDictionary> entries;
+
+    // incremented by invalidate() and clear(), guarded by entries
+    private long generation;
+
+    // generation of the last clear() and dictionary id -> generation of its last invalidate(), guarded by entries
+    private long cleared;
+    private final HashMap<String, Long> invalidated = new HashMap<>();
+
+    // dictionary id -> load in progress
+    private final ConcurrentHashMap<String, FutureTask<CachedDictionary>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * cached dictionary along with the modification time of the file it was loaded from
+     */
+    private static class CachedDictionary {
+        final long modified;
+        final DictionaryIndex index;
+
+        // last time the modification time was checked (System.nanoTime())
+        volatile long checked;
+
+        CachedDictionary(long modified, DictionaryIndex index) {
+            this.modified = modified;
+            this.index = index;
+            this.checked = System.nanoTime();
+        }
+    }
+
+    /**
+     * constructor
+     * @param capacity maximum number of cached dictionaries
+     */
+    public DictionaryCache (int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("DictionaryCache capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedDictionary> eldest) {
+                if (size() > DictionaryCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return cache shared by the whole application
+     */
+    public static DictionaryCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * get indexed dictionary, loading, validating and indexing the dictionary only if it isn't cached
+     * or its file changed since it was cached
+     * the returned index is shared between callers
+     * @param dictionary_id id of existing dictionary
+     * @return indexed dictionary words
+     * @throws Exceptions.InvalidCountException duplicate word in dictionary
+     * @throws Exceptions.InvalidRangeException word with less than six letters in dictionary
+     * @throws Exceptions.UnbalancedException dictionary consists of more than 80% of small words
+     * @throws Exceptions.UndersizeException dictionary contains fewer than 20 words
+     * @throws FileNotFoundException no dictionary matching given id
+     */
+    public DictionaryIndex get (String dictionary_id)
+    throws Exceptions.InvalidCountException, Exceptions.InvalidRangeException,
+    Exceptions.UnbalancedException, Exceptions.UndersizeException, FileNotFoundException {
+        return get(dictionary_id, LoadProgress.NONE);
+    }
+
+    /**
+     * get indexed dictionary like get(), reporting progress if the dictionary is loaded by this call
+     * a caller waiting for the load of another caller receives no progress, and is cancelled if its thread
+     * is interrupted while waiting
+     * @param dictionary_id id of existing dictionary
+     * @param progress receives the fraction of the work done, may cancel loading by throwing CancellationException
+     * @return indexed dictionary words
+     * @throws Exceptions.InvalidCountException duplicate word in dictionary
+     * @throws Exceptions.InvalidRangeException word with less than six letters in dictionary
+     * @throws Exceptions.UnbalancedException dictionary consists of more than 80% of small words
+     * @throws Exceptions.UndersizeException dictionary contains fewer than 20 words
+     * @throws FileNotFoundException no dictionary matching given id
+     * @throws CancellationException loading was cancelled by progress or by interrupting the caller
+     */
+    public DictionaryIndex get (String dictionary_id, LoadProgress progress)
+    throws Exceptions.InvalidCountException, Exceptions.InvalidRangeException,
+    Exceptions.UnbalancedException, Exceptions.UndersizeException, FileNotFoundException {
+
+        if (dictionary_id == null) {
+            throw new FileNotFoundException();
+        }
+
+        while (true) {
+            CachedDictionary cached;
+            synchronized (this.entries) {
+                cached = this.entries.get(dictionary_id);
+            }
+            if (cached != null && isFresh(dictionary_id, cached)) {
+                this.hits.increment();
+                return cached.index;
+            }
+
+            // not cached or stale, a single caller loads the dictionary and the others wait for it
+            FutureTask<CachedDictionary> task = new FutureTask<>(() -> load(dictionary_id, progress));
+            FutureTask<CachedDictionary> running = this.loading.putIfAbsent(dictionary_id, task);
+            if (running == null) {
+                this.misses.increment();
+                running = task;
+                try {
+                    task.run();
+                }
+                finally {
+                    this.loading.remove(dictionary_id, task);
+                }
+            }
+
+            try {
+                return running.get().index;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("DictionaryCache.get(): interrupted");
+            }
+            catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                // the load of another caller was cancelled, load again
+                if (cause instanceof CancellationException && running != task) {
+                    continue;
+                }
+                throw rethrow(cause);
+            }
+        }
+    }
+
+    /**
+     * @return cached dictionary is still the dictionary file, checking its modification time only
+     *         if it wasn't checked for CHECK_INTERVAL
+     */
+    private boolean isFresh (String dictionary_id, CachedDictionary cached) {
+        long now = System.nanoTime();
+        if (now - cached.checked < CHECK_INTERVAL) {
+            return true;
+        }
+        long modified = Dictionary.textPath(dictionary_id).toFile().lastModified();
+        if (modified != cached.modified || modified == 0L) {
+            synchronized (this.entries) {
+                this.entries.remove(dictionary_id, cached);
+            }
+            return false;
+        }
+        cached.checked = now;
+        return true;
+    }
+
+    /**
+     * load dictionary and cache it, failed loads are not cached
+     */
+    private CachedDictionary load (String dictionary_id, LoadProgress progress) throws Exception {
+        long started;
+        synchronized (this.entries) {
+            started = this.generation;
+        }
+        long modified = Dictionary.textPath(dictionary_id).toFile().lastModified();
+        DictionaryIndex index = Dictionary.loadIndex(dictionary_id, progress);
+        CachedDictionary cached = new CachedDictionary(modified, index);
+
+        // written or invalidated while loading, the index may be older than the file
+        boolean changed = Dictionary.textPath(dictionary_id).toFile().lastModified() != modified;
+        synchronized (this.entries) {
+            if (!changed && this.cleared <= started && this.invalidated.getOrDefault(dictionary_id, 0L) <= started) {
+                this.entries.put(dictionary_id, cached);
+            }
+        }
+
+        // word length brackets of the loaded dictionary
+        int[] histogram = new int[index.getMaxLength() + 1];
+        for (int len = 0; len < histogram.length; len++) {
+            histogram[len] = index.countOfLength(len);
+        }
+        StatsStore.shared().recordDictionary(dictionary_id, histogram);
+        return cached;
+    }
+
+    /**
+     * throw the exception of a failed load as it was thrown by Dictionary.loadIndex()
+     */
+    private static RuntimeException rethrow (Throwable cause)
+    throws Exceptions.InvalidCountException, Exceptions.InvalidRangeException,
+    Exceptions.UnbalancedException, Exceptions.UndersizeException, FileNotFoundException {
+        if (cause instanceof Exceptions.InvalidCountException) {
+            throw (Exceptions.InvalidCountException) cause;
+        }
+        if (cause instanceof Exceptions.InvalidRangeException) {
+            throw (Exceptions.InvalidRangeException) cause;
+        }
+        if (cause instanceof Exceptions.UnbalancedException) {
+            throw (Exceptions.UnbalancedException) cause;
+        }
+        if (cause instanceof Exceptions.UndersizeException) {
+            throw (Exceptions.UndersizeException) cause;
+        }
+        if (cause instanceof FileNotFoundException) {
+            throw (FileNotFoundException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException("DictionaryCache.get(): unexpected exception", cause);
+    }
+
+    /**
+     * drop dictionary from cache, a load in progress isn't cached and later requests load the dictionary again
+     * @param dictionary_id id of dictionary
+     */
+    public void invalidate (String dictionary_id) {
+        synchronized (this.entries) {
+            this.entries.remove(dictionary_id);
+            this.invalidated.put(dictionary_id, ++this.generation);
+        }
+        this.loading.remove(dictionary_id);
+    }
+
+    /**
+     * drop every cached dictionary, loads in progress aren't cached
+     */
+    public void clear () {
+        synchronized (this.entries) {
+            this.entries.clear();
+            this.invalidated.clear();
+            this.cleared = ++this.generation;
+        }
+        this.loading.clear();
+    }
+
+    /**
+     * @return number of cached dictionaries
+     */
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * @return number of requests served from the cache
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return number of requests that loaded the dictionary from disk
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return number of dictionaries evicted to respect the capacity
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+}
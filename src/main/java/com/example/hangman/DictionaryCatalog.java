@@ -0,0 +1,352 @@
+package com.example.hangman;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * catalog of the dictionaries in the dictionary directory (Dictionary.getDirectory()), kept in memory so that listing them
+ * never touches the file system
+ * the directory is listed once by the catalog thread, which then follows created, modified and deleted
+ * dictionaries through a WatchService; every dictionary is validated in the background without keeping
+ * its words (see Dictionary.validate), a fresh binary sidecar is validated from its header only
+ * entries are immutable and replaced when their dictionary changes, so they can be read from any thread
+ */
+public class DictionaryCatalog {
+    private static final String PREFIX = "hangman_DICTIONARY-";
+    private static final String TEXT = ".txt";
+    private static final String BINARY = ".bin";
+
+    /**
+     * validation state of a dictionary
+     */
+    public enum Status { PENDING, VALID, INVALID }
+
+    /**
+     * dictionary as last seen by the catalog
+     */
+    public static class Entry {
+        private final String id;
+        private final long size;
+        private final long modified;
+        private final int word_count;
+        private final Status status;
+        private final String error;
+
+        Entry(String id, long size, long modified, int word_count, Status status, String error) {
+            this.id = id;
+            this.size = size;
+            this.modified = modified;
+            this.word_count = word_count;
+            this.status = status;
+            this.error = error;
+        }
+
+        /**
+         * @return id of dictionary
+         */
+        public String getId() {
+            return this.id;
+        }
+
+        /**
+         * @return size of text file in bytes
+         */
+        public long getSize() {
+            return this.size;
+        }
+
+        /**
+         * @return modification time of text file in milliseconds
+         */
+        public long getModified() {
+            return this.modified;
+        }
+
+        /**
+         * @return number of words (-1 while pending or if the dictionary is invalid)
+         */
+        public int getWordCount() {
+            return this.word_count;
+        }
+
+        /**
+         * @return validation state
+         */
+        public Status getStatus() {
+            return this.status;
+        }
+
+        /**
+         * @return reason the dictionary is invalid (null otherwise)
+         */
+        public String getError() {
+            return this.error;
+        }
+    }
+
+    private final Path directory;
+    private final WatchService watcher;
+    private final Thread thread;
+
+    // dictionary id -> entry, sorted by id
+    private final ConcurrentSkipListMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+
+    // initial listing and validation finished, guarded by this
+    private boolean ready;
+
+    /**
+     * start watching the dictionary directory and list its dictionaries in the background
+     * the directory is created if it doesn't exist yet
+     * @throws IOException directory can't be created or watched
+     */
+    public DictionaryCatalog () throws IOException {
+        this.directory = Dictionary.getDirectory().toAbsolutePath();
+        Files.createDirectories(this.directory);
+        // register before listing, so that no change made while listing is missed
+        this.watcher = FileSystems.getDefault().newWatchService();
+        this.directory.register(this.watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        this.thread = new Thread(this::run, "dictionary-catalog");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @return every dictionary sorted by id
+     */
+    public List<Entry> list() {
+        return new ArrayList<>(this.entries.values());
+    }
+
+    /**
+     * @param status validation state
+     * @return dictionaries in given state sorted by id
+     */
+    public List<Entry> list(Status status) {
+        List<Entry> list = new ArrayList<>();
+        for (Entry entry : this.entries.values()) {
+            if (entry.getStatus() == status) {
+                list.add(entry);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @param dictionary_id id of dictionary
+     * @return entry of dictionary or null if there is no such dictionary
+     */
+    public Entry get(String dictionary_id) {
+        return (dictionary_id == null) ? null : this.entries.get(dictionary_id);
+    }
+
+    /**
+     * @return number of dictionaries
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * wait until every dictionary present when the catalog started is listed and validated
+     * @param timeout maximum time to wait in milliseconds
+     * @return catalog is ready
+     * @throws InterruptedException interrupted while waiting
+     */
+    public synchronized boolean awaitReady (long timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (!this.ready) {
+            long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (left <= 0) {
+                return false;
+            }
+            wait(left);
+        }
+        return true;
+    }
+
+    /**
+     * stop watching the directory, entries stay as they are
+     */
+    public void close () {
+        try {
+            this.watcher.close();
+        }
+        catch (IOException e) {
+            System.err.println("DictionaryCatalog.close(): error closing watch service");
+        }
+        this.thread.interrupt();
+    }
+
+    /**
+     * catalog thread: list the directory, then apply changes until closed
+     */
+    private void run () {
+        scan();
+        synchronized (this) {
+            this.ready = true;
+            notifyAll();
+        }
+
+        try {
+            while (true) {
+                WatchKey key = this.watcher.take();
+                // collect the dictionaries changed by every pending event, a file being written
+                // reports several modifications but is validated once
+                Set<String> changed = new TreeSet<>();
+                boolean overflow = false;
+                do {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            overflow = true;
+                        }
+                        else {
+                            String id = dictionaryId(event.context().toString());
+                            if (id != null) {
+                                changed.add(id);
+                            }
+                        }
+                    }
+                    if (!key.reset()) {
+                        // directory was deleted
+                        this.entries.clear();
+                        return;
+                    }
+                    key = this.watcher.poll();
+                } while (key != null);
+
+                // events were lost, list the whole directory again
+                if (overflow) {
+                    scan();
+                }
+                else {
+                    for (String id : changed) {
+                        update(id);
+                    }
+                }
+            }
+        }
+        catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    /**
+     * list every dictionary of the directory, then validate the new and changed ones
+     */
+    private void scan () {
+        Set<String> found = new TreeSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, PREFIX + "*" + TEXT)) {
+            for (Path path : stream) {
+                found.add(dictionaryId(path.getFileName().toString()));
+            }
+        }
+        catch (IOException e) {
+            System.err.println("DictionaryCatalog.scan(): error listing " + this.directory);
+        }
+
+        // list every dictionary first, so they are all shown while they are validated
+        this.entries.keySet().retainAll(found);
+        List<String> stale = new ArrayList<>();
+        for (String id : found) {
+            Entry entry = this.entries.get(id);
+            BasicFileAttributes attributes = attributes(id);
+            if (attributes == null) {
+                continue;
+            }
+            if (entry == null || entry.getSize() != attributes.size()
+                    || entry.getModified() != attributes.lastModifiedTime().toMillis()) {
+                this.entries.put(id, new Entry(id, attributes.size(), attributes.lastModifiedTime().toMillis(),
+                        -1, Status.PENDING, null));
+                stale.add(id);
+            }
+        }
+        for (String id : stale) {
+            validate(id);
+        }
+    }
+
+    /**
+     * bring the entry of a dictionary up to date after its text file or binary sidecar changed
+     */
+    private void update (String id) {
+        BasicFileAttributes attributes = attributes(id);
+        if (attributes == null) {
+            this.entries.remove(id);
+            return;
+        }
+        this.entries.put(id, new Entry(id, attributes.size(), attributes.lastModifiedTime().toMillis(),
+                -1, Status.PENDING, null));
+        validate(id);
+    }
+
+    /**
+     * validate dictionary and store the result, unless the dictionary changed or was deleted meanwhile
+     * (a later event validates it again)
+     */
+    private void validate (String id) {
+        Entry pending = this.entries.get(id);
+        if (pending == null) {
+            return;
+        }
+        Entry entry;
+        try {
+            int word_count = Dictionary.validate(id);
+            entry = new Entry(id, pending.getSize(), pending.getModified(), word_count, Status.VALID, null);
+        }
+        // dictionary not fitting criteria
+        catch (Exceptions.UnbalancedException | Exceptions.UndersizeException | Exceptions.InvalidRangeException |
+                Exceptions.InvalidCountException e) {
+            entry = new Entry(id, pending.getSize(), pending.getModified(), -1, Status.INVALID, e.getMessage());
+        }
+        catch (FileNotFoundException e) {
+            return;
+        }
+        this.entries.replace(id, pending, entry);
+    }
+
+    /**
+     * @return attributes of the text file of a dictionary, null if it doesn't exist
+     */
+    private BasicFileAttributes attributes (String id) {
+        try {
+            return Files.readAttributes(Dictionary.textPath(id), BasicFileAttributes.class);
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param filename name of a file in the directory
+     * @return id of the dictionary the text file or binary sidecar belongs to, null for other files
+     */
+    private static String dictionaryId (String filename) {
+        if (!filename.startsWith(PREFIX)) {
+            return null;
+        }
+        if (filename.endsWith(TEXT)) {
+            return filename.substring(PREFIX.length(), filename.length() - TEXT.length());
+        }
+        if (filename.endsWith(BINARY)) {
+            return filename.substring(PREFIX.length(), filename.length() - BINARY.length());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.hangman;
+
+/**
+ * loaded dictionary indexed by word length
+ * words of every length are kept in their own bucket along with the [position][letter] count matrix
+ * and the [position][letter] inverted index (LetterMasks) of the bucket, so a game only has to look
+ * at the words with the length of its target word and filters them by intersecting masks
+ * everything is built once when the dictionary is loaded, instances are immutable and shared
+ * without locking between concurrent games, returned arrays must not be modified
+ */
+public class DictionaryIndex {
+    private static final int[][] EMPTY_COUNTS = new int[0][26];
+
+    // buckets[length] contains every word with this length, packed (see PackedWords)
+    private final PackedWords[] buckets;
+
+    // counts[length][position][letter] number of words of the bucket with the letter in the position
+    private final int[][][] counts;
+
+    // ordinal of the first word of each bucket when words are numbered bucket by bucket
+    private final int[] first_ordinal;
+
+    // total number of words
+    private final int size;
+
+    // masks[length] inverted index of the bucket
+    private final LetterMasks[] masks;
+
+    /**
+     * build index from validated dictionary words (uppercase A-Z)
+     * @param words dictionary words
+     */
+    public DictionaryIndex (String[] words) {
+        this(pack(words), LoadProgress.NONE);
+    }
+
+    /**
+     * build index from packed words
+     * @param buckets buckets[length] words with this length (null if there are none)
+     * @param progress receives the fraction of words indexed after every length bucket
+     */
+    DictionaryIndex (PackedWords[] buckets, LoadProgress progress) {
+        int max_length = buckets.length - 1;
+        double total = 0;
+        for (PackedWords bucket : buckets) {
+            total += (bucket == null) ? 0 : bucket.size();
+        }
+        this.buckets = new PackedWords[max_length + 1];
+        this.counts = new int[max_length + 1][][];
+        this.masks = new LetterMasks[max_length + 1];
+        this.first_ordinal = new int[max_length + 1];
+        int ordinal = 0;
+        for (int len = 0; len <= max_length; len++) {
+            PackedWords bucket = (buckets[len] == null) ? new PackedWords(len, 0) : buckets[len];
+            this.buckets[len] = bucket;
+            this.counts[len] = (bucket.size() == 0) ? EMPTY_COUNTS : new int[len][26];
+            this.first_ordinal[len] = ordinal;
+            ordinal += bucket.size();
+
+            // count letters in every position
+            int[][] bucket_counts = this.counts[len];
+            for (int i = 0; i < bucket.size(); i++) {
+                for (int pos = 0; pos < len; pos++) {
+                    bucket_counts[pos][bucket.letter(i, pos)]++;
+                }
+            }
+            this.masks[len] = new LetterMasks(bucket);
+            progress.update(ordinal / Math.max(1, total));
+        }
+        this.size = ordinal;
+    }
+
+    /**
+     * group words by length and pack them
+     */
+    private static PackedWords[] pack (String[] words) {
+        int max_length = 0;
+        for (String s : words) {
+            max_length = Math.max(max_length, s.length());
+        }
+
+        // count words of each length
+        int[] histogram = new int[max_length + 1];
+        for (String s : words) {
+            histogram[s.length()]++;
+        }
+
+        PackedWords[] buckets = new PackedWords[max_length + 1];
+        for (int len = 0; len <= max_length; len++) {
+            buckets[len] = new PackedWords(len, histogram[len]);
+        }
+        int[] cursor = new int[max_length + 1];
+        for (String s : words) {
+            buckets[s.length()].set(cursor[s.length()]++, s);
+        }
+        return buckets;
+    }
+
+    /**
+     * @return total number of words
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return length of the longest word
+     */
+    public int getMaxLength() {
+        return this.buckets.length - 1;
+    }
+
+    /**
+     * @param length word length
+     * @return number of words with given length
+     */
+    public int countOfLength(int length) {
+        return (length < this.buckets.length) ? this.buckets[length].size() : 0;
+    }
+
+    /**
+     * @param length word length
+     * @return every word with given length (shared, must not be modified)
+     */
+    public PackedWords getBucket(int length) {
+        return (length < this.buckets.length) ? this.buckets[length] : new PackedWords(length, 0);
+    }
+
+    /**
+     * @param length word length
+     * @return [position][letter] counts of the words with given length (shared, must not be modified)
+     */
+    public int[][] getCounts(int length) {
+        return (length < this.counts.length) ? this.counts[length] : EMPTY_COUNTS;
+    }
+
+    /**
+     * @param length word length
+     * @return [position][letter] inverted index of the words with given length (shared)
+     */
+    public LetterMasks getMasks(int length) {
+        return (length < this.masks.length) ? this.masks[length] : new LetterMasks(new PackedWords(length, 0));
+    }
+
+    /**
+     * words are numbered bucket by bucket starting from the shortest words
+     * @param ordinal number of word, from 0 to size()-1
+     * @return word with given number
+     */
+    public String getWord(int ordinal) {
+        if (ordinal < 0 || ordinal >= this.size) {
+            throw new IndexOutOfBoundsException("DictionaryIndex.getWord(): " + ordinal);
+        }
+        int len = this.first_ordinal.length - 1;
+        while (this.first_ordinal[len] > ordinal || this.buckets[len].size() == 0) {
+            len--;
+        }
+        return this.buckets[len].getWord(ordinal - this.first_ordinal[len]);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.hangman;
+
+import javafx.concurrent.Task;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * loads, validates and indexes a dictionary through the DictionaryCache off the FX Application Thread
+ * progress goes from 0 to 1 while the dictionary is read and indexed (a cached dictionary completes at once)
+ * and cancel() stops loading at the next progress report, a cancelled load is not cached
+ * cancelling never interrupts the loading thread: an interrupt closes the channel of a binary dictionary being read
+ * (ClosedByInterruptException), and callers sharing the load through the cache would get that error
+ */
+public class DictionaryLoadTask extends Task<DictionaryIndex> {
+    private final String dictionary_id;
+
+    /**
+     * @param dictionary_id id of dictionary to load
+     */
+    public DictionaryLoadTask (String dictionary_id) {
+        this.dictionary_id = dictionary_id;
+        updateTitle("Loading dictionary " + dictionary_id);
+    }
+
+    /**
+     * @return id of dictionary loaded by the task
+     */
+    public String getDictionaryId() {
+        return this.dictionary_id;
+    }
+
+    /**
+     * cancel without interrupting the loading thread, the load stops at its next progress report
+     * @param mayInterruptIfRunning ignored
+     * @return the task was cancelled
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return super.cancel(false);
+    }
+
+    @Override
+    protected DictionaryIndex call() throws Exception {
+        updateProgress(0, 1);
+        DictionaryIndex index = DictionaryCache.shared().get(this.dictionary_id, fraction -> {
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+            updateProgress(fraction, 1);
+        });
+        updateProgress(1, 1);
+        return index;
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.hangman;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * single pass validator for dictionaries that are read line by line
+ * duplicates and short words are reported as soon as they are read along with their line number,
+ * the size and balance of the dictionary are checked by finish() after the last word
+ *
+ * in EXACT mode every word is kept in a HashSet
+ * in BOUNDED mode words go through a bloom filter of fixed size instead, and only words that
+ * may have been seen before (bloom filter hits) are kept; they must be confirmed by a second pass
+ * over the dictionary with confirm() before finish()
+ */
+public class DictionaryValidator {
+
+    /**
+     * duplicate detection strategy
+     */
+    public enum Mode { EXACT, BOUNDED }
+
+    // smallest allowed word length
+    private static final int MIN_LENGTH = 6;
+    // words with more letters than this are big words
+    private static final int BIG_LENGTH = 8;
+    // smallest allowed dictionary size
+    private static final int MIN_WORDS = 20;
+    // hash functions used by the bloom filter
+    private static final int BLOOM_HASHES = 4;
+
+    private final String dictionary_id;
+    private final Mode mode;
+
+    // EXACT mode: every word read so far
+    private final HashSet<String> words;
+
+    // BOUNDED mode: bloom filter and words that hit it
+    private final long[] bloom;
+    private final long bloom_bits;
+    private final HashSet<String> suspects;
+    // occurrences of suspects seen by confirm()
+    private final HashMap<String, Integer> confirmed;
+
+    // number of lines read
+    private int line;
+    // number of words read
+    private int total_words;
+    // number of words with more than 8 letters
+    private int big_words;
+
+    /**
+     * create validator keeping every word (EXACT mode)
+     * @param dictionary_id id of validated dictionary
+     */
+    public DictionaryValidator (String dictionary_id) {
+        this(dictionary_id, Mode.EXACT, 0);
+    }
+
+    /**
+     * @param dictionary_id id of validated dictionary
+     * @param mode duplicate detection strategy
+     * @param bloom_bytes size of the bloom filter in BOUNDED mode (ignored in EXACT mode)
+     */
+    public DictionaryValidator (String dictionary_id, Mode mode, int bloom_bytes) {
+        this.dictionary_id = dictionary_id;
+        this.mode = mode;
+        if (mode == Mode.EXACT) {
+            this.words = new HashSet<>();
+            this.bloom = null;
+            this.bloom_bits = 0;
+            this.suspects = null;
+            this.confirmed = null;
+        }
+        else {
+            if (bloom_bytes < 8) {
+                throw new IllegalArgumentException("DictionaryValidator bloom filter too small");
+            }
+            this.words = null;
+            this.bloom = new long[bloom_bytes / 8];
+            this.bloom_bits = (long) this.bloom.length * 64;
+            this.suspects = new HashSet<>();
+            this.confirmed = new HashMap<>();
+        }
+    }
+
+    /**
+     * validate next line of the dictionary
+     * @param word word in the line
+     * @throws Exceptions.InvalidCountException word already read (EXACT mode or certain duplicate)
+     * @throws Exceptions.InvalidRangeException word with less than six letters
+     */
+    public void accept (String word) throws Exceptions.InvalidCountException, Exceptions.InvalidRangeException {
+        this.line++;
+        this.total_words++;
+
+        if (word.length() < MIN_LENGTH) {
+            throw new Exceptions.InvalidRangeException(
+                "Word with less than 6 letters contained in dictionary with id: " + this.dictionary_id +
+                " at line " + this.line);
+        }
+        else if (word.length() > BIG_LENGTH) {
+            this.big_words++;
+        }
+
+        if (this.mode == Mode.EXACT) {
+            if (!this.words.add(word)) {
+                throw duplicate();
+            }
+        }
+        // a word that is already a suspect has certainly been read twice
+        else if (bloomAdd(word) && !this.suspects.add(word)) {
+            throw duplicate();
+        }
+    }
+
+    /**
+     * count a group of words known to be unique (a bucket of a binary dictionary)
+     * @param length length of the words
+     * @param count number of words
+     * @throws Exceptions.InvalidRangeException words with less than six letters
+     */
+    public void acceptBucket (int length, int count) throws Exceptions.InvalidRangeException {
+        if (count == 0) {
+            return;
+        }
+        if (length < MIN_LENGTH) {
+            throw new Exceptions.InvalidRangeException(
+                "Word with less than 6 letters contained in dictionary with id: " + this.dictionary_id);
+        }
+        this.total_words += count;
+        this.line += count;
+        if (length > BIG_LENGTH) {
+            this.big_words += count;
+        }
+    }
+
+    /**
+     * @return words that must be confirmed by a second pass (BOUNDED mode only)
+     */
+    public boolean needsConfirmation () {
+        return this.mode == Mode.BOUNDED && !this.suspects.isEmpty();
+    }
+
+    /**
+     * second pass over the dictionary in BOUNDED mode, lines must be given in the same order
+     * @param word word in the line
+     * @param line_number line of the word (starting from 1)
+     * @throws Exceptions.InvalidCountException word read for the second time
+     */
+    public void confirm (String word, int line_number) throws Exceptions.InvalidCountException {
+        if (this.suspects.contains(word) && this.confirmed.merge(word, 1, Integer::sum) > 1) {
+            throw new Exceptions.InvalidCountException(
+                "Duplicate word in dictionary with id: " + this.dictionary_id + " at line " + line_number);
+        }
+    }
+
+    /**
+     * check constraints that need the whole dictionary
+     * @throws Exceptions.UndersizeException dictionary contains fewer than 20 words
+     * @throws Exceptions.UnbalancedException less than 20% of words have more than 8 letters
+     */
+    public void finish () throws Exceptions.UndersizeException, Exceptions.UnbalancedException {
+        if (this.total_words < MIN_WORDS) {
+            throw new Exceptions.UndersizeException(
+                "Total dictionary size less than minimum of 20 words");
+        }
+
+        if (this.big_words * 5 < this.total_words) {
+            throw new Exceptions.UnbalancedException(
+                "Words with less than 9 letters are more than 80% of words in dictionary with id: " +
+                this.dictionary_id);
+        }
+    }
+
+    /**
+     * @return number of words read
+     */
+    public int getTotalWords () {
+        return this.total_words;
+    }
+
+    private Exceptions.InvalidCountException duplicate () {
+        return new Exceptions.InvalidCountException(
+            "Duplicate word in dictionary with id: " + this.dictionary_id + " at line " + this.line);
+    }
+
+    /**
+     * add word to bloom filter
+     * @return every bit of the word was already set (word may have been read before)
+     */
+    private boolean bloomAdd (String word) {
+        // double hashing from two independent hashes of the word
+        long h1 = word.hashCode();
+        long h2 = 0xcbf29ce484222325L;
+        for (int i = 0; i < word.length(); i++) {
+            h2 = (h2 ^ word.charAt(i)) * 0x100000001b3L;
+        }
+
+        boolean present = true;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, this.bloom_bits);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((this.bloom[index] & mask) == 0) {
+                present = false;
+                this.bloom[index] |= mask;
+            }
+        }
+        return present;
+    }
+}
@@ -1,78 +1,27 @@
 package com.example.hangman;
 
+import com.example.hangman.engine.GameEngine;
 import javafx.scene.image.Image;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.math.RoundingMode;
-import java.text.DecimalFormat;
-import java.util.Arrays;
 import java.util.HashSet;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * contains information about active game
+ * the game itself is played by a GameEngine, this class adapts it to the GUI
+ * (display strings, 1-based positions and stage images)
  */
 public class Game {
-    // game's target word
-    private String word;
+    // state and rules of the game
+    private final GameEngine engine = new GameEngine();
 
-    // word appearing in GUI
-    private char[] displayed_word;
-
-    // dictionary words fitting current state of word
-    private HashSet<String> possible_answers = new HashSet<>();
-
-    // positions where missing letters are found
-    private HashSet<Byte> found_positions = new HashSet<>();
-
-    // each row represents a letter of the selected word
-    // each column the count of possible answers containing every letter in the alphabet (first item is 'A', last 'Z')
-    private int[][] probabilities;
-
-    // points accumulated in this game
-    private int points;
-
-    // total number of moves executed in current game
-    private byte total_moves;
-
-    // number of successful moves in current game
-    private byte correct_moves;
-
-    // length of target word
-    private byte length;
-
-    // remaining wrong moves before loss
-    private byte tries;
-
-    // game is finished
-    private boolean finished;
-
-    // player won the game
-    private boolean victory;
-
-    // last move was successful
-    private boolean success;
-
-    // position of last move
-    private byte last_pos;
-
-    // letter of last move
-    private char last_char;
+    // display strings, rendered again only when the state they show changes
+    private final RenderCache render_cache = new RenderCache(this.engine);
 
 
     /**
      * constructor
      */
     public Game () {
-        this.word = "";
-        this.length = 0;
-        this.displayed_word = new char[]{'\u0000'};
-        this.points = 0;
-        this.total_moves = 0;
-        this.correct_moves = 0;
-        this.tries = 6;
-        this.victory = false;
-        this.finished = false;
     }
 
 
@@ -82,58 +31,37 @@ public class Game {
      * @throws Exception failed to load dictionary
      */
     public void setGame (String dictionary_id) throws Exception{
-        this.word = "";
-        this.length = 0;
-        this.displayed_word = new char[]{'\u0000'};
-        this.points = 0;
-        this.total_moves = 0;
-        this.correct_moves = 0;
-        this.tries = 6;
-        this.victory = false;
-        this.finished = false;
-
-        this.possible_answers = new HashSet<>();
-        this.found_positions = new HashSet<>();
-
         // retrieve Dictionary
-        String[] dictionary;
+        DictionaryIndex dictionary;
         try {
-            dictionary = Dictionary.load(dictionary_id);
+            dictionary = DictionaryCache.shared().get(dictionary_id);
         }
         catch (Exceptions.UnbalancedException | Exceptions.UndersizeException | Exceptions.InvalidRangeException |
             Exceptions.InvalidCountException | FileNotFoundException e) {
             throw new Exception("Game.setGame(): error loading dictionary with id: " + dictionary_id);
         }
 
+        setGame(dictionary);
+    }
+
+    /**
+     * reset game state with an already loaded dictionary (see DictionaryLoadTask)
+     * @param dictionary indexed dictionary
+     */
+    public void setGame (DictionaryIndex dictionary) {
+        // the previous game is no longer in progress, whether it finished or not
+        this.engine.abandon();
         // get a random word from the dictionary
-        int dictionary_length = dictionary.length;
-        int random_index = ThreadLocalRandom.current().nextInt(0, dictionary_length);
-        this.word = dictionary[random_index];
-
-        // create empty char array displaying found characters
-        this.displayed_word = new char[this.word.length()];
-
-        // save the length of the selected word
-        this.length = (byte)this.word.length();
-
-        // create probabilities array
-        this.probabilities = new int[this.length][26];
-
-        // add dictionary words with same length in possible_answers
-        // and update probabilities array accordingly
-        char c;
-        for (String s : dictionary) {
-            if (s.length() == this.length) {
-                this.possible_answers.add(s);
-
-                // for each word in possible answers increment its appearances 
-                // counter by one in the position it was found
-                for (int i = 0; i < this.length; i++) {
-                    c = s.charAt(i);
-                    this.probabilities[i][c - 'A']++;
-                }
-            }
-        }
+        this.engine.start(dictionary);
+        this.render_cache.invalidate();
+    }
+
+
+    /**
+     * @return engine playing the game
+     */
+    public GameEngine getEngine() {
+        return this.engine;
     }
 
 
@@ -141,6 +69,12 @@ public class Game {
      * @return positions of characters successfully found
      */
     public HashSet<Byte> getFoundPositions() {
+        HashSet<Byte> found_positions = new HashSet<>();
+        for (int i = 0; i < this.engine.getLength(); i++) {
+            if (this.engine.isFound(i)) {
+                found_positions.add((byte) (i + 1));
+            }
+        }
         return found_positions;
     }
 
@@ -149,6 +83,7 @@ public class Game {
      * try letter in position
      * if successful insert letter and increase points
      * if unsuccessful reduce number of tries left before loss by one and decrease points
+     * possible answers are updated by the engine
      * @param c letter given by player
      * @param position position in which to try letter
      * @return game still in session
@@ -156,113 +91,36 @@ public class Game {
     public boolean nextMove (char c, byte position) {
         position--;
         // check if the move is valid
-        if (position >= 0 && position < this.length && this.displayed_word[position] == '\u0000') {
-            this.last_char =c;
-            this.last_pos = position;
-            this.total_moves++;
-
-            // correct guess
-            if (this.word.charAt(position) == c) {
-                found_positions.add((byte) (position + 1));
-                this.correct_moves++;
-                this.success = true;
-
-                // add character in found characters
-                this.displayed_word[position] = c;
-
-                float probability = (float) this.probabilities[position][c-'A']
-                                        / (float) this.possible_answers.size();
-
-                // increase points based on probability of letter in current position
-                if (probability >= 0.6f) {
-                    points += 5;
-                }
-                else if (probability >= 0.4f) {
-                    points += 10;
-                }
-                else if (probability >= 0.25f) {
-                    points += 15;
-                }
-                else {
-                    points += 30;
-                }
-
-
-                // victory
-                if (this.word.equals(new String(this.displayed_word))) {
-                    this.victory = true;
-                    this.finished = true;
-                }
-            }
-
-            // wrong guess
-            else {
-                this.success = false;
-                points -= Math.min(this.points, 15);
-
-                // defeat
-                if (--this.tries == 0) {
-                    this.victory = false;
-                    this.finished = true;
-                }
-            }
+        if (this.engine.isLegalMove(position, c)) {
+            this.engine.move(position, c);
+            this.render_cache.invalidate();
         }
 
         // illegal move - shouldn't happen with gui
         else {
             System.err.println("nextMove illegal arguments" + c + " " + position);
         }
-        this.updateProbabilities();
 
-        return this.finished;
+        return this.engine.isFinished();
     }
 
 
     /**
-     * update possible answers
-     * called after every nextMove()
+     * choose how letter counts are maintained after every move
+     * @param incremental subtract the removed words (default) or recount the remaining words
      */
-    public void updateProbabilities() {
-        // flag to mark removed words
-        boolean removed;
-
-        // new set to add updated possible answers
-        HashSet<String> new_set = new HashSet<>();
-
-        // iterate every word in set
-        for (String word : this.possible_answers) {
-            // initialise flag
-            removed = false;
-
-            // iterate over word's characters
-            for (int i = 0; i < this.length; i++) {
-
-                // the word is no longer a possible answer
-                if ((this.displayed_word[i] != word.charAt(i) && this.displayed_word[i] != '\u0000') ||
-                        (this.last_char == word.charAt(this.last_pos) && !this.success)){
-                    
-                    // update probabilities array removing the word
-                    for (int j = 0; j < this.length; j++) {
-                        int index = word.charAt(j) - 'A';
-                        this.probabilities[j][index]--;
-                    }
-
-                    // raise flag
-                    removed = true;
-
-                    // stop after finding the word isn't a possible answer
-                    break;
-                }    
-            }
+    public void setIncrementalCounts(boolean incremental) {
+        this.engine.setIncrementalCounts(incremental);
+    }
 
-            // only add words that aren't marked as removed
-            if (!removed) {
-                new_set.add(word);
-            }
-        }
 
-        // update possible answers
-        this.possible_answers = new_set;
+    /**
+     * check incrementally maintained letter counts against a full recount after every move
+     * applies to games started after the call, meant for tests
+     * @param validate enable the check
+     */
+    public void setValidateCounts(boolean validate) {
+        this.engine.setValidateCounts(validate);
     }
 
 
@@ -272,37 +130,11 @@ public class Game {
      */
     public char[][] getProbChars () {
         // character array to return values
-        char[][] most_probable_chars = new char[this.length][26];
-        // temporary array to sort by number of appearances
-        Character[] letters = new Character[26];
+        char[][] most_probable_chars = new char[this.engine.getLength()][26];
 
         // for every character position in the wanted word
-        for (int word_char = 0; word_char < this.length; word_char++) {
-
-            // probs contains number of appearances of each character
-            // in selected position
-            int[] probs = this.probabilities[word_char].clone();
-
-            // letters contains every character from 'A' to 'Z' 
-            for (int ch = 'A'; ch <= (int)'Z'; ch++) {
-                letters[ch - (int)'A'] = (char)ch;
-            }
-
-            // override sort function to sort letters array
-            // by comparing the number of appearances of each letter 
-            // in given position
-            Arrays.sort(letters, (o1, o2) -> {
-                int index1 = (int) o1 - (int)'A';
-                int index2 = (int) o2 - (int)'A';
-                return Integer.compare(probs[index1], probs[index2]);
-            });
-
-            // append results to result array
-            // from end to beginning of letter array because sorting does it
-            // in increasing order
-            for (int i = 0; i < 26; i++) {
-                most_probable_chars[word_char][i] = letters[25-i];
-            }
+        for (int word_char = 0; word_char < most_probable_chars.length; word_char++) {
+            this.engine.rankLetters(word_char, most_probable_chars[word_char]);
         }
 
         // return result
@@ -310,54 +142,65 @@ public class Game {
     }
 
 
+    /**
+     * order letters by number of possible answers having them in a position, without allocating
+     * letters with the same count are ordered from 'Z' to 'A'
+     * @param position position in word (starting from 0)
+     * @param letters array of at least 26 characters to fill, most probable letter first
+     */
+    public void rankLetters (int position, char[] letters) {
+        this.engine.rankLetters(position, letters);
+    }
+
+
     /**
      * @return number of possible answers in dictionary
      */
     public String getAvailableWordCount () {
-        return Integer.toString(this.possible_answers.size());
+        return this.render_cache.getAvailableWordCount();
     }
 
     /**
      * @return player's points
      */
     public String getPoints () {
-        return Integer.toString(this.points);
+        return this.render_cache.getPoints();
     }
 
     /**
      * @return target word
      */
     public String getWord() {
-        return this.word;
+        return this.engine.getWord();
     }
 
     /**
      * @return total moves made in game
      */
     public int getTotalMoves() {
-        return this.total_moves;
+        return this.engine.getTotalMoves();
     }
 
     /**
      * @return length of target word
      */
     public byte getLength() {
-        return this.length;
+        return (byte) this.engine.getLength();
     }
 
     /**
      * @return game is finished
      */
     public boolean getFinished() {
-        return this.finished;
+        return this.engine.isFinished();
     }
 
     /**
      * @return "PLAYER" if player won or "COMPUTER" otherwise
      */
     public String getWinner() {
-        if (this.finished) {
-            return this.victory ? "PLAYER" : "COMPUTER";
+        if (this.engine.isFinished()) {
+            return this.engine.isVictory() ? "PLAYER" : "COMPUTER";
         }
         // sanity check
         else {
@@ -369,26 +212,14 @@ public class Game {
      * @return percentage of successful moves
      */
     public String getSuccessPercentage() {
-        DecimalFormat df = new DecimalFormat("#.#");
-        df.setRoundingMode(RoundingMode.HALF_UP);
-        double result = (double) (this.correct_moves * 100) / (double) this.total_moves;
-        return (Double.isNaN(result)) ? "0.0%" : df.format(result) + "%";
+        return this.render_cache.getSuccessPercentage();
     }
 
     /**
      * @return image representing remaining unsuccessful moves
      */
     public Image getTries() {
-        final String IMAGE_PATH = "src/main/resources/pictures/stage";
-        try {
-            FileInputStream pic = new FileInputStream(IMAGE_PATH + (6-this.tries) + ".png");
-            return new Image(pic);
-        }
-        catch (Exception e) {
-            System.err.println("Game.getTries(): error loading images");
-            e.printStackTrace();
-            return null;
-        }
+        return StageImages.get(GameEngine.MAX_TRIES - this.engine.getTriesLeft());
     }
 
     /**
@@ -396,15 +227,8 @@ public class Game {
      * @return target word
      */
     public String getSolution() {
-        this.updateProbabilities();
-        this.tries = 0;
-        this.points = 0;
-        this.victory = false;
-        this.finished = true;
-        this.possible_answers = new HashSet<>();
-        for (int i = 0; i < this.length; i++) {
-            this.displayed_word[i] = this.word.charAt(i);
-        }
+        this.engine.forfeit();
+        this.render_cache.invalidate();
         return this.getDisplayedWord();
     }
 
@@ -412,45 +236,20 @@ public class Game {
      * @return string representing state of target word where '_' represents a missing letter
      */
     public String getDisplayedWord() {
-        StringBuilder sb = new StringBuilder();
-        String s;
-        // '\u0000' means letter not yet found
-        for (char c : this.displayed_word) {
-            s = (c=='\u0000') ? "_ " : c + " ";
-            sb.append(s);
-        }
-        return sb.toString();
+        return this.render_cache.getDisplayedWord();
     }
 
     /**
      * @return dictionary words fitting in current state of missing word
      */
     public String getPossibleAnswers() {
-        StringBuilder sb = new StringBuilder();
-        boolean newline = true;
-        char [][] prob_chars = this.getProbChars();
-
-        // get list of possible letters for each of the positions containing a missing letter
-        for (int i = 0; i < prob_chars.length; i++) {
-            sb.append(String.format("Position %d: ", i+1));
-            if (this.displayed_word[i] != '\u0000') {
-                sb.append("-\n");
-                continue;
-            }
-
-            for (int j = 0; j < prob_chars[0].length; j++) {
-                if (this.probabilities[i][prob_chars[i][j]-'A'] > 0) {
-                    if (!newline) {
-                        sb.append(", ");
-                    }
-                    sb.append(prob_chars[i][j]);
-                    newline = false;
-                }
-            }
-            sb.append("\n");
-            newline = true;
-        }
+        return this.render_cache.getPossibleAnswers();
+    }
 
-        return sb.toString();
+    /**
+     * @return cache of the display strings, reports its hit rate
+     */
+    public RenderCache getRenderCache() {
+        return this.render_cache;
     }
 }
@@ -0,0 +1,363 @@
+package com.example.hangman;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * sparse index over a HistoryJournal
+ * rounds are grouped in blocks of BLOCK_SIZE consecutive records and every block is summarised by
+ * its first and last timestamp, and every dictionary id has a posting list of the blocks containing it,
+ * so queries only read the blocks that contain matching rounds, however many dictionaries are played
+ * summaries of complete blocks are appended to the index file, the summary of the last (incomplete)
+ * block is kept in memory and rebuilt from the journal when the index is opened
+ *
+ * file layout (big endian): MAGIC, VERSION, BLOCK_SIZE, then one entry per complete block:
+ * first timestamp (long), last timestamp (long),
+ * number of dictionary ids first seen in the block (int) and every such id (short length, UTF-8 bytes),
+ * number of dictionaries in the block (int) and their numbers (int each, ids are numbered in order of first use)
+ */
+public class HistoryIndex implements Closeable {
+    // "HNGX"
+    private static final int MAGIC = 0x484E4758;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 12;
+    // records per block
+    public static final int BLOCK_SIZE = 1024;
+
+    private final FileChannel channel;
+
+    // summaries of blocks, the last one may be incomplete
+    private long[] first_timestamps = new long[16];
+    private long[] last_timestamps = new long[16];
+    private int blocks;
+
+    // dictionary ids by number and numbers by id
+    private final List<String> names = new ArrayList<>();
+    private final HashMap<String, Integer> numbers = new HashMap<>();
+
+    // postings[number] blocks containing the dictionary in increasing order, posting_sizes[number] used length
+    private int[][] postings = new int[16][];
+    private int[] posting_sizes = new int[16];
+
+    // numbers of the dictionaries of the last block
+    private int[] block_dictionaries = new int[16];
+    private int block_size;
+
+    // number of indexed rounds
+    private long count;
+
+    // complete blocks, dictionary ids and bytes stored in the index file
+    private int stored_blocks;
+    private int stored_names;
+    private long end;
+
+    /**
+     * open index of a journal, rebuilding summaries the index file is missing
+     * @param path index file
+     * @param journal indexed journal
+     * @throws IOException failed to read journal or index
+     */
+    public HistoryIndex (Path path, HistoryJournal journal) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long complete_blocks = journal.size() / BLOCK_SIZE;
+            readStored(complete_blocks);
+
+            // summarise blocks written to the journal but not to the index
+            this.count = (long) this.stored_blocks * BLOCK_SIZE;
+            for (long from = this.count; from < journal.size(); from += BLOCK_SIZE) {
+                for (Round round : journal.readRange(from, Math.min(from + BLOCK_SIZE, journal.size()))) {
+                    add(round);
+                }
+            }
+        }
+        catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * index a round appended to the journal
+     * @param round appended round, its seq must follow the last indexed round
+     * @throws IOException failed to write index
+     */
+    public synchronized void add (Round round) throws IOException {
+        if (round.getSeq() != this.count) {
+            throw new IllegalStateException("HistoryIndex: expected round " + this.count + " got " + round.getSeq());
+        }
+        int block = (int) (this.count / BLOCK_SIZE);
+        if (block == this.blocks) {
+            startBlock(round.getTimestamp());
+        }
+        this.last_timestamps[block] = round.getTimestamp();
+        addPosting(number(round.getDictionaryId()), block);
+        this.count++;
+
+        // persist summary once the block is complete
+        if (this.count % BLOCK_SIZE == 0 && block == this.stored_blocks) {
+            writeEntry(block);
+        }
+    }
+
+    /**
+     * @return number of blocks (the last one may be incomplete)
+     */
+    public synchronized int getBlocks() {
+        return this.blocks;
+    }
+
+    /**
+     * @param block number of block
+     * @return timestamp of first round of the block
+     */
+    public synchronized long getFirstTimestamp(int block) {
+        return this.first_timestamps[block];
+    }
+
+    /**
+     * @param block number of block
+     * @return timestamp of last round of the block
+     */
+    public synchronized long getLastTimestamp(int block) {
+        return this.last_timestamps[block];
+    }
+
+    /**
+     * @param block number of block
+     * @param dictionary_id id of dictionary (as stored in the journal)
+     * @return block contains rounds of the dictionary
+     */
+    public synchronized boolean mayContain(int block, String dictionary_id) {
+        Integer number = this.numbers.get(dictionary_id);
+        return number != null && Arrays.binarySearch(this.postings[number], 0, this.posting_sizes[number], block) >= 0;
+    }
+
+    /**
+     * @param dictionary_id id of dictionary (as stored in the journal)
+     * @return blocks containing rounds of the dictionary in increasing order
+     */
+    public synchronized int[] getDictionaryBlocks(String dictionary_id) {
+        Integer number = this.numbers.get(dictionary_id);
+        return (number == null) ? new int[0] : Arrays.copyOf(this.postings[number], this.posting_sizes[number]);
+    }
+
+    /**
+     * @param timestamp time in milliseconds since epoch
+     * @return first block whose last round was recorded at or after timestamp (getBlocks() if none)
+     */
+    public synchronized int firstBlockEndingAtOrAfter(long timestamp) {
+        // timestamps never decrease, so last timestamps of blocks are sorted
+        int low = 0;
+        int high = this.blocks;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.last_timestamps[mid] < timestamp) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * read stored summaries up to the number of complete blocks of the journal, discarding the file if it
+     * isn't an index and the entries after the last complete one (journal lost records, or interrupted write)
+     */
+    private void readStored (long complete_blocks) throws IOException {
+        long size = this.channel.size();
+        boolean valid = size >= HEADER_SIZE;
+        if (valid) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(header, 0);
+            header.flip();
+            valid = header.getInt() == MAGIC && header.getInt() == VERSION && header.getInt() == BLOCK_SIZE;
+        }
+
+        if (!valid) {
+            // new, older or unusable index, start over
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(BLOCK_SIZE);
+            header.flip();
+            this.channel.truncate(0);
+            writeFully(header, 0);
+            this.end = HEADER_SIZE;
+            return;
+        }
+
+        ByteBuffer entries = ByteBuffer.allocate((int) (size - HEADER_SIZE));
+        readFully(entries, HEADER_SIZE);
+        entries.flip();
+        this.end = HEADER_SIZE;
+        while (this.stored_blocks < complete_blocks && readEntry(entries)) {
+            this.stored_blocks++;
+            this.stored_names = this.names.size();
+            this.end = HEADER_SIZE + entries.position();
+        }
+        this.channel.truncate(this.end);
+    }
+
+    /**
+     * read the summary of the next block
+     * @return entry was complete and consistent (the index is unchanged otherwise)
+     */
+    private boolean readEntry (ByteBuffer entries) {
+        int names_before = this.names.size();
+        try {
+            long first = entries.getLong();
+            long last = entries.getLong();
+            int new_names = entries.getInt();
+            if (new_names < 0) {
+                return false;
+            }
+            List<String> added = new ArrayList<>();
+            for (int i = 0; i < new_names; i++) {
+                byte[] name = new byte[entries.getShort() & 0xFFFF];
+                entries.get(name);
+                added.add(new String(name, StandardCharsets.UTF_8));
+            }
+            int dictionaries = entries.getInt();
+            if (dictionaries < 0 || dictionaries > BLOCK_SIZE) {
+                return false;
+            }
+            int[] block = new int[dictionaries];
+            for (int i = 0; i < dictionaries; i++) {
+                block[i] = entries.getInt();
+                if (block[i] < 0 || block[i] >= names_before + new_names) {
+                    return false;
+                }
+            }
+
+            // entry is complete, add it
+            for (String name : added) {
+                number(name);
+            }
+            startBlock(first);
+            this.last_timestamps[this.blocks - 1] = last;
+            for (int number : block) {
+                addPosting(number, this.blocks - 1);
+            }
+            return true;
+        }
+        catch (BufferUnderflowException e) {
+            return false;
+        }
+    }
+
+    private void writeEntry (int block) throws IOException {
+        List<byte[]> new_names = new ArrayList<>();
+        int bytes = 8 + 8 + 4 + 4 + 4 * this.block_size;
+        for (int i = this.stored_names; i < this.names.size(); i++) {
+            byte[] name = this.names.get(i).getBytes(StandardCharsets.UTF_8);
+            new_names.add(name);
+            bytes += 2 + name.length;
+        }
+
+        ByteBuffer entry = ByteBuffer.allocate(bytes);
+        entry.putLong(this.first_timestamps[block]);
+        entry.putLong(this.last_timestamps[block]);
+        entry.putInt(new_names.size());
+        for (byte[] name : new_names) {
+            entry.putShort((short) name.length);
+            entry.put(name);
+        }
+        entry.putInt(this.block_size);
+        for (int i = 0; i < this.block_size; i++) {
+            entry.putInt(this.block_dictionaries[i]);
+        }
+        entry.flip();
+        writeFully(entry, this.end);
+        this.end += bytes;
+        this.stored_blocks++;
+        this.stored_names = this.names.size();
+    }
+
+    /**
+     * append an empty block
+     */
+    private void startBlock (long first_timestamp) {
+        if (this.blocks == this.first_timestamps.length) {
+            int capacity = this.blocks * 2;
+            this.first_timestamps = Arrays.copyOf(this.first_timestamps, capacity);
+            this.last_timestamps = Arrays.copyOf(this.last_timestamps, capacity);
+        }
+        this.first_timestamps[this.blocks] = first_timestamp;
+        this.blocks++;
+        this.block_size = 0;
+    }
+
+    /**
+     * @return number of dictionary id, assigned on first use
+     */
+    private int number (String dictionary_id) {
+        Integer number = this.numbers.get(dictionary_id);
+        if (number != null) {
+            return number;
+        }
+        number = this.names.size();
+        this.names.add(dictionary_id);
+        this.numbers.put(dictionary_id, number);
+        if (number == this.postings.length) {
+            this.postings = Arrays.copyOf(this.postings, 2 * number);
+            this.posting_sizes = Arrays.copyOf(this.posting_sizes, 2 * number);
+        }
+        this.postings[number] = new int[4];
+        return number;
+    }
+
+    /**
+     * add block to the posting list of a dictionary, once per block
+     */
+    private void addPosting (int number, int block) {
+        int size = this.posting_sizes[number];
+        int[] posting = this.postings[number];
+        if (size > 0 && posting[size - 1] == block) {
+            return;
+        }
+        if (size == posting.length) {
+            posting = Arrays.copyOf(posting, 2 * size);
+            this.postings[number] = posting;
+        }
+        posting[size] = block;
+        this.posting_sizes[number]++;
+
+        if (this.block_size == this.block_dictionaries.length) {
+            this.block_dictionaries = Arrays.copyOf(this.block_dictionaries, 2 * this.block_size);
+        }
+        this.block_dictionaries[this.block_size++] = number;
+    }
+
+    private void writeFully (ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += this.channel.write(buffer, position);
+        }
+    }
+
+    private void readFully (ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = this.channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of game history index");
+            }
+            position += read;
+        }
+    }
+}
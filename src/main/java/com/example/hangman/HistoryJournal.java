@@ -0,0 +1,289 @@
+package com.example.hangman;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * append-only journal of finished games
+ * the file starts with a small header followed by fixed size records, so recording a game is a
+ * single append and round n is found at HEADER_SIZE + n * RECORD_SIZE without parsing the file
+ *
+ * record layout (big endian, RECORD_SIZE bytes):
+ * seq (long), timestamp (long), points (int), moves (short), victory (byte),
+ * word length (byte), dictionary id length (byte), padding (byte),
+ * word (MAX_WORD bytes, ASCII), dictionary id (MAX_DICTIONARY_ID bytes, UTF-8), padding
+ *
+ * writes reach the operating system immediately, fsync is issued every sync_every appends
+ * (group commit), on sync() and on close()
+ */
+public class HistoryJournal implements Closeable {
+    // "HNGJ"
+    private static final int MAGIC = 0x484E474A;
+    private static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 96;
+    // longest stored word and dictionary id, longer values are truncated
+    public static final int MAX_WORD = 32;
+    public static final int MAX_DICTIONARY_ID = 32;
+
+    // offsets of fields inside a record
+    private static final int WORD_OFFSET = 26;
+    private static final int DICTIONARY_OFFSET = WORD_OFFSET + MAX_WORD;
+
+    private final FileChannel channel;
+
+    // appends between two fsyncs, 0 leaves syncing to the operating system
+    private final int sync_every;
+
+    // number of records in the journal
+    private long count;
+    // timestamp of last record, timestamps never decrease
+    private long last_timestamp;
+    // appends since last fsync
+    private int unsynced;
+
+    // reused by append()
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+    /**
+     * open journal, creating it if it doesn't exist
+     * a partially written record at the end of the file (interrupted append) is discarded
+     * @param path journal file
+     * @param sync_every appends between two fsyncs (1 syncs every append, 0 never syncs before close)
+     * @throws IOException failed to open journal or file is not a journal
+     */
+    public HistoryJournal (Path path, int sync_every) throws IOException {
+        if (sync_every < 0) {
+            throw new IllegalArgumentException("HistoryJournal sync_every must not be negative");
+        }
+        this.sync_every = sync_every;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        try {
+            long size = this.channel.size();
+            if (size < HEADER_SIZE) {
+                // new journal
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0);
+                header.flip();
+                this.channel.truncate(0);
+                writeFully(header, 0);
+                this.channel.force(true);
+                this.count = 0;
+            }
+            else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                readFully(header, 0);
+                header.flip();
+                if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getInt() != RECORD_SIZE) {
+                    throw new IOException("Not a game history journal: " + path);
+                }
+                this.count = (size - HEADER_SIZE) / RECORD_SIZE;
+                if (HEADER_SIZE + this.count * RECORD_SIZE != size) {
+                    this.channel.truncate(HEADER_SIZE + this.count * RECORD_SIZE);
+                }
+                if (this.count > 0) {
+                    this.last_timestamp = read(this.count - 1).getTimestamp();
+                }
+            }
+        }
+        catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * record a finished game
+     * @param dictionary_id id of dictionary used in the game
+     * @param word target word
+     * @param moves total moves made in the game
+     * @param points points at the end of the game
+     * @param victory player won the game
+     * @return recorded round
+     * @throws IOException failed to write record
+     */
+    public synchronized Round append (String dictionary_id, String word, int moves, int points, boolean victory)
+    throws IOException {
+        long timestamp = Math.max(System.currentTimeMillis(), this.last_timestamp);
+        Round round = new Round(this.count, timestamp, truncate(dictionary_id, MAX_DICTIONARY_ID),
+                truncate(word, MAX_WORD), moves, points, victory);
+
+        ByteBuffer buffer = this.record;
+        encode(round, buffer);
+        buffer.flip();
+        writeFully(buffer, HEADER_SIZE + this.count * RECORD_SIZE);
+
+        this.count++;
+        this.last_timestamp = timestamp;
+        if (this.sync_every > 0 && ++this.unsynced >= this.sync_every) {
+            sync();
+        }
+        return round;
+    }
+
+    /**
+     * @return number of recorded rounds
+     */
+    public synchronized long size() {
+        return this.count;
+    }
+
+    /**
+     * @param seq number of round (starting from 0)
+     * @return recorded round
+     * @throws IOException failed to read record
+     */
+    public synchronized Round read (long seq) throws IOException {
+        if (seq < 0 || seq >= this.count) {
+            throw new IndexOutOfBoundsException("HistoryJournal.read(): " + seq);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        readFully(buffer, HEADER_SIZE + seq * RECORD_SIZE);
+        buffer.flip();
+        return decode(buffer);
+    }
+
+    /**
+     * read consecutive rounds with a single read
+     * @param from number of first round
+     * @param to number after last round
+     * @return rounds from oldest to newest
+     * @throws IOException failed to read records
+     */
+    public synchronized List<Round> readRange (long from, long to) throws IOException {
+        from = Math.max(0, from);
+        to = Math.min(this.count, to);
+        List<Round> rounds = new ArrayList<>((int) Math.max(0, to - from));
+        if (from >= to) {
+            return rounds;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) ((to - from) * RECORD_SIZE));
+        readFully(buffer, HEADER_SIZE + from * RECORD_SIZE);
+        buffer.flip();
+        for (long seq = from; seq < to; seq++) {
+            buffer.limit(buffer.position() + RECORD_SIZE);
+            rounds.add(decode(buffer));
+            buffer.limit(buffer.capacity());
+        }
+        return rounds;
+    }
+
+    /**
+     * read the latest rounds from the tail of the journal
+     * @param n maximum number of rounds
+     * @return up to n rounds from newest to oldest
+     * @throws IOException failed to read records
+     */
+    public synchronized List<Round> readLast (int n) throws IOException {
+        List<Round> rounds = readRange(this.count - n, this.count);
+        Collections.reverse(rounds);
+        return rounds;
+    }
+
+    /**
+     * force recorded rounds to disk
+     * @throws IOException fsync failed
+     */
+    public synchronized void sync() throws IOException {
+        if (this.unsynced > 0) {
+            this.channel.force(false);
+            this.unsynced = 0;
+        }
+    }
+
+    /**
+     * sync and close journal
+     * @throws IOException failed to sync or close
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.channel.isOpen()) {
+            try {
+                sync();
+            }
+            finally {
+                this.channel.close();
+            }
+        }
+    }
+
+    private static void encode (Round round, ByteBuffer buffer) {
+        byte[] word = round.getWord().getBytes(StandardCharsets.US_ASCII);
+        byte[] dictionary = round.getDictionaryId().getBytes(StandardCharsets.UTF_8);
+
+        buffer.clear();
+        buffer.putLong(round.getSeq());
+        buffer.putLong(round.getTimestamp());
+        buffer.putInt(round.getPoints());
+        buffer.putShort((short) round.getMoves());
+        buffer.put((byte) (round.isVictory() ? 1 : 0));
+        buffer.put((byte) word.length);
+        buffer.put((byte) dictionary.length);
+        buffer.put((byte) 0);
+        buffer.put(word);
+        buffer.position(DICTIONARY_OFFSET);
+        buffer.put(dictionary);
+        buffer.position(RECORD_SIZE);
+    }
+
+    private static Round decode (ByteBuffer buffer) {
+        int start = buffer.position();
+        long seq = buffer.getLong();
+        long timestamp = buffer.getLong();
+        int points = buffer.getInt();
+        int moves = buffer.getShort();
+        boolean victory = buffer.get() == 1;
+        int word_length = buffer.get();
+        int dictionary_length = buffer.get();
+
+        byte[] word = new byte[word_length];
+        buffer.position(start + WORD_OFFSET);
+        buffer.get(word);
+        byte[] dictionary = new byte[dictionary_length];
+        buffer.position(start + DICTIONARY_OFFSET);
+        buffer.get(dictionary);
+        buffer.position(start + RECORD_SIZE);
+
+        return new Round(seq, timestamp, new String(dictionary, StandardCharsets.UTF_8),
+                new String(word, StandardCharsets.US_ASCII), moves, points, victory);
+    }
+
+    /**
+     * @return value cut to fit in max bytes once encoded
+     */
+    static String truncate (String value, int max) {
+        if (value == null) {
+            return "";
+        }
+        while (value.getBytes(StandardCharsets.UTF_8).length > max) {
+            value = value.substring(0, value.length() - 1);
+        }
+        return value;
+    }
+
+    private void writeFully (ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += this.channel.write(buffer, position);
+        }
+    }
+
+    private void readFully (ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = this.channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of game history journal");
+            }
+            position += read;
+        }
+    }
+}
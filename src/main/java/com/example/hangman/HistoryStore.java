@@ -0,0 +1,144 @@
+package com.example.hangman;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * unbounded game history: a HistoryJournal of every finished game and a sparse HistoryIndex over it
+ * the latest rounds are read from the tail of the journal, rounds of a dictionary and rounds in a
+ * time range only read the blocks of the journal the index selects, so queries don't scan the
+ * whole history
+ */
+public class HistoryStore implements Closeable {
+    private final HistoryJournal journal;
+    private final HistoryIndex index;
+
+    /**
+     * open history, creating the journal and the index if they don't exist
+     * @param journal_path journal file
+     * @param index_path index file
+     * @param sync_every appends between two fsyncs of the journal
+     * @throws IOException failed to open journal or index
+     */
+    public HistoryStore (Path journal_path, Path index_path, int sync_every) throws IOException {
+        this.journal = new HistoryJournal(journal_path, sync_every);
+        try {
+            this.index = new HistoryIndex(index_path, this.journal);
+        }
+        catch (IOException e) {
+            this.journal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * record a finished game
+     * @param dictionary_id id of dictionary used in the game
+     * @param word target word
+     * @param moves total moves made in the game
+     * @param points points at the end of the game
+     * @param victory player won the game
+     * @return recorded round
+     * @throws IOException failed to write journal or index
+     */
+    public synchronized Round append (String dictionary_id, String word, int moves, int points, boolean victory)
+    throws IOException {
+        Round round = this.journal.append(dictionary_id, word, moves, points, victory);
+        this.index.add(round);
+        return round;
+    }
+
+    /**
+     * @return number of recorded rounds
+     */
+    public long size() {
+        return this.journal.size();
+    }
+
+    /**
+     * @param n maximum number of rounds
+     * @return up to n latest rounds from newest to oldest
+     * @throws IOException failed to read journal
+     */
+    public List<Round> last (int n) throws IOException {
+        return this.journal.readLast(n);
+    }
+
+    /**
+     * @param from number of first round
+     * @param to number after last round
+     * @return rounds from oldest to newest
+     * @throws IOException failed to read journal
+     */
+    public List<Round> range (long from, long to) throws IOException {
+        return this.journal.readRange(from, to);
+    }
+
+    /**
+     * @param dictionary_id id of dictionary
+     * @param limit maximum number of rounds
+     * @return up to limit latest rounds played with the dictionary, from newest to oldest
+     * @throws IOException failed to read journal
+     */
+    public synchronized List<Round> forDictionary (String dictionary_id, int limit) throws IOException {
+        // ids are stored truncated
+        String key = HistoryJournal.truncate(dictionary_id, HistoryJournal.MAX_DICTIONARY_ID);
+        List<Round> rounds = new ArrayList<>();
+        // only the blocks containing the dictionary, from newest to oldest
+        int[] blocks = this.index.getDictionaryBlocks(key);
+        for (int i = blocks.length - 1; i >= 0 && rounds.size() < limit; i--) {
+            List<Round> candidates = readBlock(blocks[i]);
+            for (int j = candidates.size() - 1; j >= 0 && rounds.size() < limit; j--) {
+                if (candidates.get(j).getDictionaryId().equals(key)) {
+                    rounds.add(candidates.get(j));
+                }
+            }
+        }
+        return rounds;
+    }
+
+    /**
+     * @param from start of range (milliseconds since epoch, inclusive)
+     * @param to end of range (milliseconds since epoch, exclusive)
+     * @return rounds recorded in the range, from oldest to newest
+     * @throws IOException failed to read journal
+     */
+    public synchronized List<Round> inTimeRange (long from, long to) throws IOException {
+        List<Round> rounds = new ArrayList<>();
+        for (int block = this.index.firstBlockEndingAtOrAfter(from);
+             block < this.index.getBlocks() && this.index.getFirstTimestamp(block) < to; block++) {
+            for (Round round : readBlock(block)) {
+                if (round.getTimestamp() >= from && round.getTimestamp() < to) {
+                    rounds.add(round);
+                }
+            }
+        }
+        return rounds;
+    }
+
+    /**
+     * force recorded rounds to disk
+     * @throws IOException fsync failed
+     */
+    public void sync() throws IOException {
+        this.journal.sync();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            this.journal.close();
+        }
+        finally {
+            this.index.close();
+        }
+    }
+
+    private List<Round> readBlock (int block) throws IOException {
+        long from = (long) block * HistoryIndex.BLOCK_SIZE;
+        return this.journal.readRange(from, from + HistoryIndex.BLOCK_SIZE);
+    }
+}
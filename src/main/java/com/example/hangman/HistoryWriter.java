@@ -0,0 +1,273 @@
+package com.example.hangman;
+
+import com.example.hangman.metrics.Metrics;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * write-behind persistence of finished games
+ * rounds are queued by the caller (the JavaFX application thread) and appended to the HistoryStore
+ * by a single writer thread, which takes every queued round at once and fsyncs once per batch
+ * when the queue is full submit() waits for the writer, so memory use stays bounded
+ * rounds not yet appended are also kept in submission order, so that last() shows them without waiting
+ * for the writer
+ * rounds are added to the StatsStore given to the constructor once they are appended, so the statistics
+ * count exactly the rounds of the history
+ */
+public class HistoryWriter {
+    // rounds appended between two fsyncs at most
+    private static final int MAX_BATCH = 256;
+
+    private final HistoryStore store;
+    private final StatsStore stats;
+    private final BlockingQueue<Round> queue;
+    private final Thread thread;
+
+    // rounds submitted and not yet appended to the store (or failed), oldest first, guarded by this
+    private final ArrayDeque<Round> pending = new ArrayDeque<>();
+
+    // rounds submitted and rounds written (or failed), guarded by this
+    private long submitted;
+    private long written;
+    private long failed;
+    private boolean closed;
+
+    // flush latency (time to append and sync a batch) in nanoseconds, guarded by this
+    private long batches;
+    private long last_flush;
+    private long max_flush;
+    private long total_flush;
+
+    /**
+     * start writer thread
+     * @param store history the rounds are appended to
+     * @param capacity maximum number of queued rounds
+     */
+    public HistoryWriter (HistoryStore store, int capacity) {
+        this(store, capacity, null);
+    }
+
+    /**
+     * start writer thread recording appended rounds in statistics
+     * @param store history the rounds are appended to
+     * @param capacity maximum number of queued rounds
+     * @param stats statistics every appended round is added to (null for none)
+     */
+    public HistoryWriter (HistoryStore store, int capacity, StatsStore stats) {
+        this.store = store;
+        this.stats = stats;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this::run, "history-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * queue a finished game
+     * the seq and timestamp of the round are ignored, they are assigned when the round is written
+     * @param round round to record
+     * @throws IllegalStateException writer is closed
+     */
+    public void submit (Round round) {
+        synchronized (this) {
+            if (this.closed) {
+                throw new IllegalStateException("HistoryWriter is closed");
+            }
+            this.submitted++;
+            this.pending.addLast(round);
+        }
+        // keep the round when interrupted: put() clears the interrupt status before throwing,
+        // so the next put() waits again, and the status is restored once the round is queued
+        boolean interrupted = false;
+        while (true) {
+            try {
+                this.queue.put(round);
+                break;
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * latest rounds, including the rounds still waiting to be written, without waiting for the writer
+     * @param n maximum number of rounds
+     * @return up to n latest rounds from newest to oldest
+     * @throws IOException failed to read the store
+     */
+    public synchronized List<Round> last (int n) throws IOException {
+        // rounds appended by the writer leave pending under the same lock, so none is missed or seen twice
+        List<Round> rounds = new ArrayList<>(n);
+        Iterator<Round> newest = this.pending.descendingIterator();
+        while (newest.hasNext() && rounds.size() < n) {
+            rounds.add(newest.next());
+        }
+        if (rounds.size() < n) {
+            rounds.addAll(this.store.last(n - rounds.size()));
+        }
+        return rounds;
+    }
+
+    /**
+     * wait until every round submitted before the call is written and synced
+     */
+    public synchronized void flush () {
+        long target = this.submitted;
+        boolean interrupted = false;
+        while (this.written + this.failed < target) {
+            try {
+                wait();
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * flush queued rounds and stop the writer thread, the store stays open
+     */
+    public void close () {
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+        }
+        flush();
+        this.thread.interrupt();
+        try {
+            this.thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return number of rounds waiting to be written
+     */
+    public int getQueueDepth() {
+        return this.queue.size();
+    }
+
+    /**
+     * @return number of rounds written
+     */
+    public synchronized long getWritten() {
+        return this.written;
+    }
+
+    /**
+     * @return number of rounds that couldn't be written
+     */
+    public synchronized long getFailed() {
+        return this.failed;
+    }
+
+    /**
+     * @return number of batches written
+     */
+    public synchronized long getBatches() {
+        return this.batches;
+    }
+
+    /**
+     * @return time to append and sync the last batch in nanoseconds
+     */
+    public synchronized long getLastFlushNanos() {
+        return this.last_flush;
+    }
+
+    /**
+     * @return longest time to append and sync a batch in nanoseconds
+     */
+    public synchronized long getMaxFlushNanos() {
+        return this.max_flush;
+    }
+
+    /**
+     * @return average time to append and sync a batch in nanoseconds
+     */
+    public synchronized long getAverageFlushNanos() {
+        return (this.batches == 0) ? 0 : this.total_flush / this.batches;
+    }
+
+    /**
+     * writer loop: wait for a round, take every queued round and write them as one batch
+     */
+    private void run () {
+        List<Round> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                batch.add(this.queue.take());
+            }
+            catch (InterruptedException e) {
+                synchronized (this) {
+                    if (this.closed && this.queue.isEmpty()) {
+                        return;
+                    }
+                }
+                continue;
+            }
+            this.queue.drainTo(batch, MAX_BATCH - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write (List<Round> batch) {
+        long start = System.nanoTime();
+        int done = 0;
+        try {
+            for (Round round : batch) {
+                // appending without syncing is short, last() waits for it
+                synchronized (this) {
+                    this.store.append(round.getDictionaryId(), round.getWord(), round.getMoves(),
+                            round.getPoints(), round.isVictory());
+                    this.pending.removeFirstOccurrence(round);
+                }
+                if (this.stats != null) {
+                    this.stats.recordGame(round);
+                }
+                done++;
+            }
+            this.store.sync();
+        }
+        catch (IOException e) {
+            System.err.println("HistoryWriter: error writing game history");
+            e.printStackTrace();
+            synchronized (this) {
+                for (Round round : batch.subList(done, batch.size())) {
+                    this.pending.removeFirstOccurrence(round);
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        Metrics.HISTORY_WRITE.record(elapsed);
+
+        synchronized (this) {
+            this.written += done;
+            this.failed += batch.size() - done;
+            this.batches++;
+            this.last_flush = elapsed;
+            this.max_flush = Math.max(this.max_flush, elapsed);
+            this.total_flush += elapsed;
+            notifyAll();
+        }
+    }
+}
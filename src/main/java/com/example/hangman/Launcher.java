@@ -1,10 +1,24 @@
 package com.example.hangman;
 
+import com.example.hangman.engine.Simulator;
+import com.example.hangman.server.GameServer;
+import java.util.Arrays;
+
 /**
  * Auxiliary function for executing .jar file
+ * "--server [port] [threads]" runs the game server (see GameServer) instead of the GUI
+ * "--simulate <dictionary id> [games] [threads]" runs self-play games (see Simulator)
  */
 public class Launcher {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--server")) {
+            GameServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--simulate")) {
+            Simulator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         App.main(args);
     }
 }
@@ -0,0 +1,207 @@
+package com.example.hangman;
+
+import java.util.Arrays;
+
+/**
+ * position-letter inverted index of a DictionaryIndex bucket, the word ordinals having each letter in each position
+ * every (position, letter) list is stored in whichever form is smaller: a bitmap (one bit per word of the bucket,
+ * for letters most words have there) or the gaps between consecutive ordinals as variable-length bytes (7 bits
+ * per byte, high bit set when more bytes follow), about a byte per word having the letter for the other letters,
+ * so a position costs about 8 bits per word instead of the 26 bits of one bitmap per letter
+ * filtering possible answers is a word-wide AND with one bitmap, gaps are decoded into a caller's buffer
+ * first (see CandidateSet)
+ * instances are immutable and shared by every game using the bucket
+ */
+public class LetterMasks {
+    // words of the bucket
+    private final PackedWords words;
+
+    // number of longs in a bitmap of the bucket
+    private final int blocks;
+
+    // bitmaps[position][letter] one bit per word of the bucket, null where the ordinals are stored as gaps
+    private final long[][][] bitmaps;
+
+    // gaps[position][letter] gaps between ordinals (the first one is the first ordinal + 1), null for bitmaps
+    private final byte[][][] gaps;
+
+    // cardinality[position][letter] number of words with the letter in the position
+    private final int[][] cardinality;
+
+    /**
+     * build masks of a bucket
+     * @param bucket words of the same length
+     */
+    public LetterMasks (PackedWords bucket) {
+        this.words = bucket;
+        int length = bucket.getLength();
+        this.blocks = (bucket.size() + 63) >>> 6;
+        this.bitmaps = new long[length][26][];
+        this.gaps = new byte[length][26][];
+        this.cardinality = new int[length][26];
+
+        int[] bytes = new int[26];
+        int[] last = new int[26];
+        int[] cursor = new int[26];
+        for (int pos = 0; pos < length; pos++) {
+            // size of the gaps of every letter
+            Arrays.fill(bytes, 0);
+            Arrays.fill(last, -1);
+            for (int i = 0; i < bucket.size(); i++) {
+                int letter = bucket.letter(i, pos);
+                bytes[letter] += varintSize(i - last[letter]);
+                last[letter] = i;
+                this.cardinality[pos][letter]++;
+            }
+            for (int letter = 0; letter < 26; letter++) {
+                if (bytes[letter] >= this.blocks * 8) {
+                    this.bitmaps[pos][letter] = new long[this.blocks];
+                }
+                else {
+                    this.gaps[pos][letter] = new byte[bytes[letter]];
+                }
+            }
+
+            // fill them
+            Arrays.fill(last, -1);
+            Arrays.fill(cursor, 0);
+            for (int i = 0; i < bucket.size(); i++) {
+                int letter = bucket.letter(i, pos);
+                long[] bitmap = this.bitmaps[pos][letter];
+                if (bitmap != null) {
+                    bitmap[i >>> 6] |= 1L << i;
+                }
+                else {
+                    cursor[letter] = writeVarint(this.gaps[pos][letter], cursor[letter], i - last[letter]);
+                }
+                last[letter] = i;
+            }
+        }
+    }
+
+    /**
+     * @return number of words in the bucket
+     */
+    public int size() {
+        return this.words.size();
+    }
+
+    /**
+     * @return number of letters of the words in the bucket
+     */
+    public int getLength() {
+        return this.bitmaps.length;
+    }
+
+    /**
+     * @return number of longs in a bitmap of the bucket
+     */
+    public int getBlocks() {
+        return this.blocks;
+    }
+
+    /**
+     * @return words of the bucket (shared)
+     */
+    public PackedWords getWords() {
+        return this.words;
+    }
+
+    /**
+     * @param position position in word (starting from 0)
+     * @param letter_index letter index (0 is 'A', 25 is 'Z')
+     * @return number of words having the letter in the position
+     */
+    public int count(int position, int letter_index) {
+        return this.cardinality[position][letter_index];
+    }
+
+    /**
+     * @param position position in word (starting from 0)
+     * @param letter_index letter index (0 is 'A', 25 is 'Z')
+     * @param bits words to count, one bit per word of the bucket (null for every word)
+     * @return number of the given words having the letter in the position
+     */
+    public int count(int position, int letter_index, long[] bits) {
+        if (bits == null) {
+            return this.cardinality[position][letter_index];
+        }
+        int total = 0;
+        long[] bitmap = this.bitmaps[position][letter_index];
+        if (bitmap != null) {
+            for (int i = 0; i < this.blocks; i++) {
+                total += Long.bitCount(bits[i] & bitmap[i]);
+            }
+            return total;
+        }
+        byte[] gaps = this.gaps[position][letter_index];
+        int ordinal = -1;
+        int offset = 0;
+        while (offset < gaps.length) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = gaps[offset++];
+                gap |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            ordinal += gap;
+            total += (int) (bits[ordinal >>> 6] >>> ordinal) & 1;
+        }
+        return total;
+    }
+
+    /**
+     * @param position position in word (starting from 0)
+     * @param letter_index letter index (0 is 'A', 25 is 'Z')
+     * @param buffer at least getBlocks() longs, overwritten when the letter is stored as gaps
+     * @return bitmap of the words having the letter in the position, either shared (must not be modified) or buffer
+     */
+    public long[] mask(int position, int letter_index, long[] buffer) {
+        long[] bitmap = this.bitmaps[position][letter_index];
+        if (bitmap != null) {
+            return bitmap;
+        }
+        Arrays.fill(buffer, 0, this.blocks, 0L);
+        byte[] gaps = this.gaps[position][letter_index];
+        int ordinal = -1;
+        int offset = 0;
+        while (offset < gaps.length) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = gaps[offset++];
+                gap |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            ordinal += gap;
+            buffer[ordinal >>> 6] |= 1L << ordinal;
+        }
+        return buffer;
+    }
+
+    /**
+     * @return bytes taken by a gap
+     */
+    private static int varintSize(int gap) {
+        int size = 1;
+        while ((gap >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * @return offset after the written gap
+     */
+    private static int writeVarint(byte[] bytes, int offset, int gap) {
+        while ((gap & ~0x7f) != 0) {
+            bytes[offset++] = (byte) ((gap & 0x7f) | 0x80);
+            gap >>>= 7;
+        }
+        bytes[offset++] = (byte) gap;
+        return offset;
+    }
+}
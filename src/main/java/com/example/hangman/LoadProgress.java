@@ -0,0 +1,24 @@
+package com.example.hangman;
+
+/**
+ * receives the progress of loading a dictionary, called from the loading thread
+ * throwing java.util.concurrent.CancellationException from update() stops loading
+ */
+public interface LoadProgress {
+    // ignores progress
+    LoadProgress NONE = fraction -> {};
+
+    /**
+     * @param fraction fraction of the work done, from 0 to 1
+     */
+    void update (double fraction);
+
+    /**
+     * @param from fraction of the whole work done before the part
+     * @param to fraction of the whole work done after the part
+     * @return progress of a part of the work, reported to this progress as a fraction of the whole work
+     */
+    default LoadProgress range (double from, double to) {
+        return fraction -> update(from + (to - from) * fraction);
+    }
+}
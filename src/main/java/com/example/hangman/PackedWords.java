@@ -0,0 +1,238 @@
+package com.example.hangman;
+
+import java.util.Arrays;
+
+/**
+ * words of the same length packed as 5-bit letter codes (0 is 'A', 25 is 'Z')
+ * the first 12 letters of a word are stored in one long of codes, letters after the 12th in the
+ * longs of the spill array (one or more per word), so a 6-12 letter word takes 8 bytes instead of
+ * the 50-60 bytes of a String and its reference
+ * letter i of a code is stored in bits 5*i to 5*i+4, unused high bits are zero
+ * instances are filled once and then shared between games, they must not be modified after that
+ */
+public class PackedWords {
+    public static final int LETTERS_PER_CODE = 12;
+    private static final int BITS = 5;
+    private static final long LETTER_MASK = (1L << BITS) - 1;
+
+    // number of letters of every word
+    private final int length;
+
+    // number of words
+    private final int size;
+
+    // first LETTERS_PER_CODE letters of every word
+    private final long[] codes;
+
+    // remaining letters, spill_stride longs per word (empty for short words)
+    private final long[] spill;
+    private final int spill_stride;
+
+    /**
+     * groups words of any length by length and packs them as they are added, so that a dictionary read line
+     * by line is packed without keeping a String per word (8 bytes per word of up to 12 letters)
+     */
+    static class Builder {
+        // codes and spill longs of every length, grown by doubling
+        private long[][] codes = new long[0][];
+        private long[][] spill = new long[0][];
+        private int[] sizes = new int[0];
+
+        /**
+         * @param word uppercase A-Z word
+         */
+        void add(String word) {
+            int len = word.length();
+            if (len >= this.sizes.length) {
+                this.codes = Arrays.copyOf(this.codes, len + 1);
+                this.spill = Arrays.copyOf(this.spill, len + 1);
+                this.sizes = Arrays.copyOf(this.sizes, len + 1);
+            }
+            int stride = spillStride(len);
+            int size = this.sizes[len];
+            if (this.codes[len] == null) {
+                this.codes[len] = new long[16];
+                this.spill[len] = new long[16 * stride];
+            }
+            else if (size == this.codes[len].length) {
+                this.codes[len] = Arrays.copyOf(this.codes[len], 2 * size);
+                this.spill[len] = Arrays.copyOf(this.spill[len], 2 * size * stride);
+            }
+            this.codes[len][size] = encode(word, 0);
+            for (int s = 0; s < stride; s++) {
+                this.spill[len][size * stride + s] = encode(word, (s + 1) * LETTERS_PER_CODE);
+            }
+            this.sizes[len]++;
+        }
+
+        /**
+         * @return words[length] added words with this length (null if there are none)
+         */
+        PackedWords[] build() {
+            PackedWords[] words = new PackedWords[this.sizes.length];
+            for (int len = 0; len < words.length; len++) {
+                if (this.sizes[len] > 0) {
+                    int size = this.sizes[len];
+                    words[len] = new PackedWords(len, size, Arrays.copyOf(this.codes[len], size),
+                            Arrays.copyOf(this.spill[len], size * spillStride(len)));
+                    // release the grown arrays as soon as they are copied
+                    this.codes[len] = null;
+                    this.spill[len] = null;
+                }
+            }
+            return words;
+        }
+    }
+
+    /**
+     * create empty words, filled with set()
+     * @param length number of letters of every word
+     * @param size number of words
+     */
+    PackedWords (int length, int size) {
+        this.length = length;
+        this.size = size;
+        this.codes = new long[size];
+        this.spill_stride = spillStride(length);
+        this.spill = new long[size * this.spill_stride];
+    }
+
+    private PackedWords (int length, int size, long[] codes, long[] spill) {
+        this.length = length;
+        this.size = size;
+        this.codes = codes;
+        this.spill_stride = spillStride(length);
+        this.spill = spill;
+    }
+
+    /**
+     * pack words of the same length
+     * @param words words (uppercase A-Z) with given length
+     * @param length number of letters of every word
+     */
+    public PackedWords (String[] words, int length) {
+        this(length, words.length);
+        for (int i = 0; i < words.length; i++) {
+            set(i, words[i]);
+        }
+    }
+
+    /**
+     * @return number of words
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return number of letters of every word
+     */
+    public int getLength() {
+        return this.length;
+    }
+
+    /**
+     * @param index index of word
+     * @param position position in word (starting from 0)
+     * @return letter index (0 is 'A', 25 is 'Z')
+     */
+    public int letter(int index, int position) {
+        long code = (position < LETTERS_PER_CODE)
+                ? this.codes[index]
+                : this.spill[index * this.spill_stride + position / LETTERS_PER_CODE - 1];
+        return (int) (code >>> (BITS * (position % LETTERS_PER_CODE)) & LETTER_MASK);
+    }
+
+    /**
+     * add to the [position][letter] counts of every letter of a word, reading each code once
+     * @param index index of word
+     * @param counts matrix with one row per position and 26 columns
+     * @param delta added to the count of each letter
+     */
+    void addLetters(int index, int[][] counts, int delta) {
+        long code = this.codes[index];
+        int spill = index * this.spill_stride;
+        for (int pos = 0; pos < this.length; pos++) {
+            if (pos > 0 && pos % LETTERS_PER_CODE == 0) {
+                code = this.spill[spill++];
+            }
+            counts[pos][(int) (code & LETTER_MASK)] += delta;
+            code >>>= BITS;
+        }
+    }
+
+    /**
+     * decode word, meant for the few words that are displayed
+     * @param index index of word
+     * @return word
+     */
+    public String getWord(int index) {
+        char[] word = new char[this.length];
+        for (int pos = 0; pos < this.length; pos++) {
+            word[pos] = (char) ('A' + letter(index, pos));
+        }
+        return new String(word);
+    }
+
+    /**
+     * @return longs of spill per word of given length
+     */
+    private static int spillStride(int length) {
+        return (Math.max(length, LETTERS_PER_CODE) - 1) / LETTERS_PER_CODE;
+    }
+
+    /**
+     * @param word uppercase A-Z word
+     * @param from position of first letter to encode
+     * @return code of up to LETTERS_PER_CODE letters of the word starting from given position
+     */
+    private static long encode(CharSequence word, int from) {
+        long code = 0;
+        int to = Math.min(word.length(), from + LETTERS_PER_CODE);
+        for (int pos = from; pos < to; pos++) {
+            code |= (long) (word.charAt(pos) - 'A') << (BITS * (pos - from));
+        }
+        return code;
+    }
+
+    /**
+     * store word
+     * @param index index of word
+     * @param word uppercase A-Z word with the length of the words
+     */
+    void set(int index, String word) {
+        this.codes[index] = encode(word, 0);
+        for (int s = 0; s < this.spill_stride; s++) {
+            this.spill[index * this.spill_stride + s] = encode(word, (s + 1) * LETTERS_PER_CODE);
+        }
+    }
+
+    /**
+     * store word from ASCII bytes
+     * @param index index of word
+     * @param bytes buffer containing the word
+     * @param offset position of the first letter in the buffer
+     * @return word consists of A-Z letters only (the word is partly stored otherwise)
+     */
+    boolean set(int index, byte[] bytes, int offset) {
+        long code = 0;
+        for (int pos = 0; pos < this.length; pos++) {
+            int letter = bytes[offset + pos] - 'A';
+            if (letter < 0 || letter >= 26) {
+                return false;
+            }
+            code |= (long) letter << (BITS * (pos % LETTERS_PER_CODE));
+            // last letter of a code
+            if (pos % LETTERS_PER_CODE == LETTERS_PER_CODE - 1 || pos == this.length - 1) {
+                if (pos < LETTERS_PER_CODE) {
+                    this.codes[index] = code;
+                }
+                else {
+                    this.spill[index * this.spill_stride + pos / LETTERS_PER_CODE - 1] = code;
+                }
+                code = 0;
+            }
+        }
+        return true;
+    }
+}
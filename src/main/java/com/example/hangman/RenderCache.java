@@ -0,0 +1,277 @@
+package com.example.hangman;
+
+import com.example.hangman.engine.GameEngine;
+import com.example.hangman.metrics.Metrics;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+
+/**
+ * display strings of a Game, rendered again only when the state they show has changed
+ * the game calls invalidate() after every change (start, move, forfeit), so between changes the displayed
+ * word and possible answers are returned from the cache; after a change only the parts whose state differs
+ * from the rendered state are rendered again: a letter of the displayed word or a position of the possible
+ * answers (compared by the letter counts of the position); numbers are compared with the rendered value
+ * every part returned from the cache counts as a hit and every part rendered again as a miss
+ * (also added to the totals of Metrics), not thread-safe like the game
+ */
+public class RenderCache {
+    private final GameEngine engine;
+
+    // incremented by invalidate(), parts rendered for an older version are checked again
+    private long version = 1;
+
+    // displayed word: letters as rendered ('\u0000' for a missing letter) and "A _ C " string
+    private char[] letters = new char[0];
+    private final StringBuilder word_buffer = new StringBuilder();
+    private String word;
+    private long word_version;
+
+    // possible answers: rendered line of every position and the counts or letter it was rendered from
+    private String[] lines = new String[0];
+    private int[][] line_counts = new int[0][];
+    private char[] line_letters = new char[0];
+    private String answers;
+    private long answers_version;
+    private final char[] rank_letters = new char[26];
+    private final StringBuilder answers_buffer = new StringBuilder();
+
+    // numbers and the values they were rendered from
+    private String points;
+    private int points_value;
+
+    private String success;
+    private int success_moves;
+    private int success_correct;
+    private final DecimalFormat percent = new DecimalFormat("#.#");
+
+    private String word_count;
+    private int word_count_value;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * @param engine engine of the game
+     */
+    public RenderCache (GameEngine engine) {
+        this.engine = engine;
+        this.percent.setRoundingMode(RoundingMode.HALF_UP);
+    }
+
+    /**
+     * state of the game changed, strings are checked against it on their next use
+     */
+    public void invalidate() {
+        this.version++;
+    }
+
+    /**
+     * @return string representing state of target word where '_' represents a missing letter
+     */
+    public String getDisplayedWord() {
+        if (this.word != null && this.word_version == this.version) {
+            hit(1);
+            return this.word;
+        }
+        int length = this.engine.getLength();
+
+        // new word length, render every letter
+        boolean rebuilt = this.letters.length != length;
+        if (rebuilt) {
+            this.letters = new char[length];
+            this.word_buffer.setLength(0);
+            for (int i = 0; i < length; i++) {
+                this.word_buffer.append("_ ");
+            }
+            this.word = null;
+        }
+
+        int changed = 0;
+        for (int i = 0; i < length; i++) {
+            char c = this.engine.getLetter(i);
+            if (c != this.letters[i]) {
+                this.letters[i] = c;
+                this.word_buffer.setCharAt(2 * i, (c == '\u0000') ? '_' : c);
+                changed++;
+            }
+        }
+        if (this.word == null || changed > 0) {
+            this.word = this.word_buffer.toString();
+        }
+        if (rebuilt) {
+            changed = length;
+        }
+        hit(length - changed);
+        miss(changed);
+        this.word_version = this.version;
+        return this.word;
+    }
+
+    /**
+     * @return for every position, the letters of the possible answers in the position from most to least probable
+     */
+    public String getPossibleAnswers() {
+        if (this.answers != null && this.answers_version == this.version) {
+            hit(1);
+            return this.answers;
+        }
+        int length = this.engine.getLength();
+        if (this.lines.length != length) {
+            this.lines = new String[length];
+            this.line_counts = new int[length][26];
+            this.line_letters = new char[length];
+        }
+
+        int changed = 0;
+        for (int i = 0; i < length; i++) {
+            if (this.lines[i] != null && !lineChanged(i)) {
+                continue;
+            }
+            this.lines[i] = renderLine(i);
+            changed++;
+        }
+        if (this.answers == null || changed > 0) {
+            StringBuilder sb = this.answers_buffer;
+            sb.setLength(0);
+            for (String line : this.lines) {
+                sb.append(line);
+            }
+            this.answers = sb.toString();
+        }
+        hit(length - changed);
+        miss(changed);
+        this.answers_version = this.version;
+        return this.answers;
+    }
+
+    /**
+     * @return player's points
+     */
+    public String getPoints() {
+        int value = this.engine.getPoints();
+        if (this.points != null && this.points_value == value) {
+            hit(1);
+            return this.points;
+        }
+        this.points = Integer.toString(value);
+        this.points_value = value;
+        miss(1);
+        return this.points;
+    }
+
+    /**
+     * @return percentage of successful moves
+     */
+    public String getSuccessPercentage() {
+        int moves = this.engine.getTotalMoves();
+        int correct = this.engine.getCorrectMoves();
+        if (this.success != null && this.success_moves == moves && this.success_correct == correct) {
+            hit(1);
+            return this.success;
+        }
+        this.success = (moves == 0) ? "0.0%" : this.percent.format(this.engine.getSuccessRate()) + "%";
+        this.success_moves = moves;
+        this.success_correct = correct;
+        miss(1);
+        return this.success;
+    }
+
+    /**
+     * @return number of possible answers in dictionary
+     */
+    public String getAvailableWordCount() {
+        int value = this.engine.getCandidateCount();
+        if (this.word_count != null && this.word_count_value == value) {
+            hit(1);
+            return this.word_count;
+        }
+        this.word_count = Integer.toString(value);
+        this.word_count_value = value;
+        miss(1);
+        return this.word_count;
+    }
+
+    /**
+     * @return parts returned without rendering
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return parts rendered
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * @return fraction of parts returned without rendering (0 before the first use)
+     */
+    public double getHitRate() {
+        return (this.hits + this.misses == 0) ? 0.0 : (double) this.hits / (this.hits + this.misses);
+    }
+
+    /**
+     * @return found letter or counts of the position differ from the rendered ones
+     */
+    private boolean lineChanged(int position) {
+        char letter = this.engine.getLetter(position);
+        if (letter != this.line_letters[position]) {
+            return true;
+        }
+        if (letter != '\u0000') {
+            return false;
+        }
+        int[] counts = this.line_counts[position];
+        for (int l = 0; l < 26; l++) {
+            if (counts[l] != this.engine.getCount(position, (char) ('A' + l))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * render a position and remember what it was rendered from
+     */
+    private String renderLine(int position) {
+        StringBuilder sb = this.answers_buffer;
+        sb.setLength(0);
+        sb.append("Position ").append(position + 1).append(": ");
+        char letter = this.engine.getLetter(position);
+        this.line_letters[position] = letter;
+        if (letter != '\u0000') {
+            return sb.append("-\n").toString();
+        }
+
+        int[] counts = this.line_counts[position];
+        for (int l = 0; l < 26; l++) {
+            counts[l] = this.engine.getCount(position, (char) ('A' + l));
+        }
+        char[] letters = this.rank_letters;
+        this.engine.rankLetters(position, letters);
+        boolean first = true;
+        for (int j = 0; j < 26; j++) {
+            if (counts[letters[j] - 'A'] > 0) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                sb.append(letters[j]);
+                first = false;
+            }
+        }
+        return sb.append("\n").toString();
+    }
+
+    private void hit(int parts) {
+        this.hits += parts;
+        Metrics.RENDER_HITS.add(parts);
+    }
+
+    private void miss(int parts) {
+        this.misses += parts;
+        Metrics.RENDER_MISSES.add(parts);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.hangman;
+
+/**
+ * result of a finished game as stored in the game history
+ */
+public class Round {
+    // number of round in history (starting from 0)
+    private final long seq;
+    // time the round was recorded (milliseconds since epoch)
+    private final long timestamp;
+    // id of dictionary used in the game
+    private final String dictionary_id;
+    // target word
+    private final String word;
+    // total moves made in the game
+    private final int moves;
+    // points at the end of the game
+    private final int points;
+    // player won the game
+    private final boolean victory;
+
+    /**
+     * constructor
+     * @param seq number of round in history
+     * @param timestamp time the round was recorded
+     * @param dictionary_id id of dictionary used in the game
+     * @param word target word
+     * @param moves total moves made in the game
+     * @param points points at the end of the game
+     * @param victory player won the game
+     */
+    public Round (long seq, long timestamp, String dictionary_id, String word, int moves, int points, boolean victory) {
+        this.seq = seq;
+        this.timestamp = timestamp;
+        this.dictionary_id = dictionary_id;
+        this.word = word;
+        this.moves = moves;
+        this.points = points;
+        this.victory = victory;
+    }
+
+    public long getSeq() {
+        return this.seq;
+    }
+
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    public String getDictionaryId() {
+        return this.dictionary_id;
+    }
+
+    public String getWord() {
+        return this.word;
+    }
+
+    public int getMoves() {
+        return this.moves;
+    }
+
+    public int getPoints() {
+        return this.points;
+    }
+
+    public boolean isVictory() {
+        return this.victory;
+    }
+
+    /**
+     * @return "PLAYER" if player won or "COMPUTER" otherwise
+     */
+    public String getWinner() {
+        return this.victory ? "PLAYER" : "COMPUTER";
+    }
+}
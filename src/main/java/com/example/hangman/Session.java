@@ -1,17 +1,15 @@
 package com.example.hangman;
 
-import java.io.File;
+import com.example.hangman.engine.GameEngine;
+import com.example.hangman.metrics.Metrics;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.math.RoundingMode;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.DecimalFormat;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Scanner;
 
 /**
  * class to manage game sessions
@@ -21,8 +19,24 @@ import java.util.Scanner;
 public class Session {
     // id of active dictionary
     private String dictionary_id;
-    // path of save file
-    private final static String SAVE_PATH = "src/main/resources/com/example/hangman/savegame.txt";
+    // directory of saved games and statistics, the system property "hangman.data.path" overrides it
+    private final static String DATA_PATH =
+            System.getProperty("hangman.data.path", "src/main/resources/com/example/hangman/");
+    // path of save file used before the journal, imported into a new journal
+    private final static String SAVE_PATH = Paths.get(DATA_PATH, "savegame.txt").toString();
+    // path of game history journal and its index
+    private final static String HISTORY_PATH = Paths.get(DATA_PATH, "history.dat").toString();
+    private final static String HISTORY_INDEX_PATH = Paths.get(DATA_PATH, "history.idx").toString();
+    // path of aggregate statistics, kept up to date with the history
+    private final static String STATS_PATH = Paths.get(DATA_PATH, "stats.txt").toString();
+    // number of games shown in history
+    private final static int ROUNDS_SHOWN = 5;
+    // maximum number of games waiting to be saved
+    private final static int WRITE_QUEUE_CAPACITY = 1024;
+
+    // game history and its writer, opened on first use
+    private HistoryStore history;
+    private HistoryWriter writer;
 
 
     /**
@@ -41,7 +55,8 @@ public class Session {
         this.dictionary_id = dictionary_id;
         try {
             // attempt loading dictionary for exception checking
-            String[] dictionary = Dictionary.load(dictionary_id);
+            // the loaded dictionary stays cached for the game and the stats
+            DictionaryCache.shared().get(dictionary_id);
             return true;
         }
         // dictionary not fitting criteria
@@ -52,6 +67,19 @@ public class Session {
         }
     }
 
+    /**
+     * change active dictionary to one loaded already (by a DictionaryLoadTask), without going through the cache
+     * so it never loads the dictionary again on the calling thread
+     * @param dictionary_id id of the loaded dictionary
+     * @param index the loaded dictionary
+     */
+    public void setDictionary (String dictionary_id, DictionaryIndex index) {
+        if (index == null) {
+            throw new IllegalArgumentException("Dictionary " + dictionary_id + " is not loaded");
+        }
+        this.dictionary_id = dictionary_id;
+    }
+
     /**
      * @return id of active dictionary
      */
@@ -61,40 +89,40 @@ public class Session {
 
     /**
      * get stats for active dictionary
+     * brackets and game totals are read from the StatsStore, the dictionary is only loaded if it
+     * wasn't created or loaded before
      * @return consistency of dictionary (six, seven to nine and ten or more lettered words)
+     * and results of the games played with it
      */
     public String getDictionaryStats() {
         try {
-            String[] dictionary = Dictionary.load(this.dictionary_id);
-            int total_words = 0;
-            int six_letter_words = 0;
-            int seven_to_nine_letter_words = 0;
-            int ten_or_more_letter_words = 0;
-
-            // count words in each length bracket for stats
-            for (String s : dictionary) {
-                total_words++;
-                if (s.length() == 6) {
-                    six_letter_words++;
-                }
-                else if (s.length() > 9) {
-                    ten_or_more_letter_words++;
-                }
-                else {
-                    seven_to_nine_letter_words++;
-                }
+            StatsStore stats = StatsStore.shared();
+            StatsStore.Brackets brackets = stats.getBrackets(this.dictionary_id);
+            if (brackets == null) {
+                // loading the dictionary records its brackets
+                DictionaryCache.shared().get(this.dictionary_id);
+                brackets = stats.getBrackets(this.dictionary_id);
             }
+            int total_words = brackets.getTotal();
 
             // format results in string
             DecimalFormat df = new DecimalFormat("#.#");
             df.setRoundingMode(RoundingMode.HALF_UP);
-            String six = df.format((double) (six_letter_words * 100) / (double) total_words) + "%";
-            String seven_nine = df.format((double) (seven_to_nine_letter_words * 100) / (double) total_words) + "%";
-            String ten = df.format((double) (ten_or_more_letter_words * 100) / (double) total_words) + "%";
+            String six = df.format((double) (brackets.getSix() * 100) / (double) total_words) + "%";
+            String seven_nine = df.format((double) (brackets.getSevenToNine() * 100) / (double) total_words) + "%";
+            String ten = df.format((double) (brackets.getTenOrMore() * 100) / (double) total_words) + "%";
+
+            // include games saved so far
+            history();
+            StatsStore.Aggregate games = stats.getDictionaryGames(this.dictionary_id);
 
             return "Six letter words: " + six +
                     "\nSeven to nine letter words: " + seven_nine +
-                    "\nTen or more letter words:" + ten;
+                    "\nTen or more letter words:" + ten +
+                    "\nGames played: " + games.getGames() +
+                    "\nWin rate: " + df.format(games.getWinRate() * 100) + "%" +
+                    "\nAverage moves: " + df.format(games.getAverageMoves()) +
+                    "\nAverage points: " + df.format(games.getAveragePoints());
 
         }
         catch (Exception e) {
@@ -104,45 +132,27 @@ public class Session {
 
 
     /**
-     * @return history of games played stored in SAVE_PATH
+     * @return history of the latest games played
      */
     public String[] getRounds () {
-        // retrieve game history from SAVE_PATH
-        Path relative_path = Paths.get(SAVE_PATH);
-        Path absolute_path = relative_path.toAbsolutePath();
-        String filename = absolute_path.toString();
-        String temp;
-        List<String> file_contents = new ArrayList<>();
-
-        // read save file
-        try (Scanner scanner = new Scanner(new File(filename))){
-            while (scanner.hasNextLine()) {
-                temp = scanner.nextLine();
-                file_contents.add(temp);
-            }
-        }
-        // error while reading save file
-        catch (IOException e) {
-            System.err.println("Session.getRounds() error");
-            e.printStackTrace();
-        }
-
-        // parse file contents to extract information
-        String[] save = file_contents.toArray(new String[0]);
-
-        int entries = Integer.parseInt(save[0]);
         StringBuilder sb1 = new StringBuilder();
         StringBuilder sb2 = new StringBuilder();
         StringBuilder sb3 = new StringBuilder();
-        List<String> temp_list;
 
         // format info into string
-        for (int i = 0; i < entries; i++) {
-            temp = save[i+1];
-            temp_list = new ArrayList<>(Arrays.asList(temp.split(",")));
-            sb1.append(String.format("Word: %-19s\n", temp_list.get(0)));
-            sb2.append(String.format("Tries: %-4s\n", temp_list.get(1)));
-            sb3.append(String.format("Winner: %-10s\n", temp_list.get(2)));
+        try {
+            // include games still waiting to be saved, without waiting for them to be written
+            history();
+            for (Round round : this.writer.last(ROUNDS_SHOWN)) {
+                sb1.append(String.format("Word: %-19s\n", round.getWord()));
+                sb2.append(String.format("Tries: %-4s\n", round.getMoves()));
+                sb3.append(String.format("Winner: %-10s\n", round.getWinner()));
+            }
+        }
+        // error while reading journal
+        catch (IOException e) {
+            System.err.println("Session.getRounds() error");
+            e.printStackTrace();
         }
         return new String[]{sb1.toString(), sb2.toString(), sb3.toString()};
     }
@@ -150,60 +160,131 @@ public class Session {
 
     /**
      * save result of played game
-     * results saved in format "WORD,TRIES,WINNER" with every game result in a new line
-     * the first line is the number of games saved
+     * results are queued and appended to the game history (see HistoryStore) by a background writer,
+     * so a slow disk doesn't delay the caller, and added to the aggregate statistics (see StatsStore)
+     * once they are appended
      * @param game instance of active game
      */
     public void setRounds(Game game) {
-        Path relative_path = Paths.get(SAVE_PATH);
-        Path absolute_path = relative_path.toAbsolutePath();
-        String filename = absolute_path.toString();
-
-        String temp;
-        List<String> file_contents = new ArrayList<>();
-        try (Scanner scanner = new Scanner(new File(filename))){
-            while (scanner.hasNextLine()) {
-                temp = scanner.nextLine();
-                file_contents.add(temp);
-            }
+        try {
+            HistoryStore history = history();
+            // copy the result now, the game may be restarted before the round is written
+            GameEngine engine = game.getEngine();
+            Round round = new Round(history.size(), System.currentTimeMillis(), this.dictionary_id,
+                    engine.getWord(), engine.getTotalMoves(), engine.getPoints(), engine.isVictory());
+            this.writer.submit(round);
         }
         catch (IOException e) {
             System.err.println("Session.setRounds() error");
             e.printStackTrace();
         }
+    }
+
+
+    /**
+     * wait until every finished game is saved
+     */
+    public void flush() {
+        if (this.writer != null) {
+            this.writer.flush();
+        }
+    }
 
-        // store only up to 5 latest games
-        String[] save = file_contents.toArray(new String[0]);
 
-        int entries = Integer.parseInt(save[0]);
+    /**
+     * @return background writer of game history (null if nothing was saved or read yet)
+     */
+    public HistoryWriter getWriter() {
+        return this.writer;
+    }
+
+
+    /**
+     * @return complete game history, for queries beyond the latest games
+     * @throws IOException failed to open history
+     */
+    public HistoryStore getHistory() throws IOException {
+        return history();
+    }
 
-        StringBuilder sb = new StringBuilder();
 
-        if (entries < 5) {
-            sb.append(++entries);
+    /**
+     * save queued games and statistics and close game history
+     * called when the application exits
+     */
+    public void close() {
+        if (this.writer != null) {
+            this.writer.close();
+            Metrics.unregisterHistory(this.writer);
+            this.writer = null;
         }
-        else {
-            sb.append(entries);
+        if (this.history != null) {
+            try {
+                // statistics match the history once queued games are written
+                StatsStore.shared().save(Paths.get(STATS_PATH).toAbsolutePath());
+            }
+            catch (IOException e) {
+                System.err.println("Session.close() error saving statistics");
+            }
+            try {
+                this.history.close();
+            }
+            catch (IOException e) {
+                System.err.println("Session.close() error");
+            }
+            this.history = null;
         }
-        sb.append("\n");
-        sb.append(game.getWord());
-        sb.append(",");
-        sb.append(game.getTotalMoves());
-        sb.append(",");
-        sb.append(game.getWinner());
-        sb.append("\n");
+    }
+
 
-        for (int i = 0; i < entries-1; i++) {
-            sb.append(save[i+1]);
-            sb.append("\n");
+    /**
+     * open history on first use
+     * games saved in the old text format (SAVE_PATH) are imported into a new history
+     * and saved statistics are brought up to date with the history
+     */
+    private HistoryStore history() throws IOException {
+        if (this.history == null) {
+            Path path = Paths.get(HISTORY_PATH).toAbsolutePath();
+            boolean created = !path.toFile().exists();
+            // the writer syncs once per batch
+            this.history = new HistoryStore(path, Paths.get(HISTORY_INDEX_PATH).toAbsolutePath(), 0);
+            if (created) {
+                importSaveFile(this.history);
+                this.history.sync();
+            }
+            StatsStore.shared().load(Paths.get(STATS_PATH).toAbsolutePath(), this.history);
+            this.writer = new HistoryWriter(this.history, WRITE_QUEUE_CAPACITY, StatsStore.shared());
+            Metrics.registerHistory(this.writer);
         }
+        return this.history;
+    }
 
-        try (PrintWriter pw = new PrintWriter(filename)) {
-            pw.print(sb);
+
+    /**
+     * import games from SAVE_PATH, stored as "WORD,TRIES,WINNER" lines from newest to oldest
+     * after a first line with the number of games
+     */
+    private static void importSaveFile(HistoryStore history) throws IOException {
+        Path save_path = Paths.get(SAVE_PATH).toAbsolutePath();
+        if (!save_path.toFile().isFile()) {
+            return;
         }
-        catch (Exception e) {
-            System.err.println("PrintWriter error in Session.setRounds()");
+
+        List<String> save = Files.readAllLines(save_path);
+        int entries;
+        try {
+            entries = Integer.parseInt(save.get(0).trim());
+        }
+        catch (IndexOutOfBoundsException | NumberFormatException e) {
+            return;
         }
-    }
 
+        // append oldest first
+        for (int i = Math.min(entries, save.size() - 1); i >= 1; i--) {
+            String[] fields = save.get(i).split(",");
+            if (fields.length == 3) {
+                history.append("", fields[0], Integer.parseInt(fields[1]), 0, fields[2].equals("PLAYER"));
+            }
+        }
+    }
 }
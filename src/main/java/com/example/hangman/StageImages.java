@@ -0,0 +1,55 @@
+package com.example.hangman;
+
+import javafx.scene.image.Image;
+
+import java.net.URL;
+
+/**
+ * images of the hangman stages (stage0.png to stage6.png) loaded once from the classpath
+ * and shared by every game, so moves don't read or decode images
+ */
+public class StageImages {
+    // number of stages, one for every remaining try (0 to 6 wrong moves)
+    public static final int STAGES = 7;
+
+    // location of the images in the classpath
+    private static final String IMAGE_PATH = "/pictures/stage";
+
+    // decoded images, created on first use
+    private static Image[] images;
+
+    /**
+     * start loading every image in the background
+     * called at startup so that images are ready before the first move
+     */
+    public static void preload() {
+        images();
+    }
+
+    /**
+     * @param stage number of wrong moves (0 to 6)
+     * @return image of the stage or null if it couldn't be loaded
+     */
+    public static Image get(int stage) {
+        if (stage < 0 || stage >= STAGES) {
+            throw new IllegalArgumentException("StageImages.get(): no stage " + stage);
+        }
+        return images()[stage];
+    }
+
+    private static synchronized Image[] images() {
+        if (images == null) {
+            images = new Image[STAGES];
+            for (int i = 0; i < STAGES; i++) {
+                URL url = StageImages.class.getResource(IMAGE_PATH + i + ".png");
+                if (url == null) {
+                    System.err.println("StageImages: missing image for stage " + i);
+                    continue;
+                }
+                // decoded by the JavaFX background loader
+                images[i] = new Image(url.toExternalForm(), true);
+            }
+        }
+        return images;
+    }
+}
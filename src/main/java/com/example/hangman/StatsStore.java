@@ -0,0 +1,320 @@
+package com.example.hangman;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * aggregate statistics updated in O(1) when a game ends and when a dictionary is created or loaded
+ * keeps the word length brackets of every dictionary and the games, wins, moves and points
+ * per dictionary and per word length, so reports don't rescan dictionaries or game history
+ *
+ * statistics are saved in a small text file along with the number of recorded games, and games
+ * recorded in the history after the last save are replayed when the file is loaded
+ */
+public class StatsStore {
+    private static final StatsStore SHARED = new StatsStore();
+
+    // first word of each line of the saved file
+    private static final String ROUNDS = "rounds";
+    private static final String BRACKETS = "brackets";
+    private static final String DICTIONARY = "dictionary";
+    private static final String LENGTH = "length";
+
+    // word length brackets of every dictionary
+    private final Map<String, Brackets> brackets = new HashMap<>();
+    // game totals per dictionary
+    private final Map<String, Aggregate> dictionaries = new HashMap<>();
+    // game totals per word length
+    private final Map<Integer, Aggregate> lengths = new TreeMap<>();
+
+    // number of games recorded
+    private long rounds;
+
+    /**
+     * number of words in each length bracket of a dictionary (six, seven to nine, ten or more letters)
+     */
+    public static class Brackets {
+        private final int six;
+        private final int seven_to_nine;
+        private final int ten_or_more;
+
+        Brackets(int six, int seven_to_nine, int ten_or_more) {
+            this.six = six;
+            this.seven_to_nine = seven_to_nine;
+            this.ten_or_more = ten_or_more;
+        }
+
+        public int getSix() {
+            return this.six;
+        }
+
+        public int getSevenToNine() {
+            return this.seven_to_nine;
+        }
+
+        public int getTenOrMore() {
+            return this.ten_or_more;
+        }
+
+        public int getTotal() {
+            return this.six + this.seven_to_nine + this.ten_or_more;
+        }
+    }
+
+    /**
+     * totals of a group of games
+     */
+    public static class Aggregate {
+        private long games;
+        private long wins;
+        private long moves;
+        private long points;
+
+        void add(int moves, int points, boolean victory) {
+            this.games++;
+            this.wins += victory ? 1 : 0;
+            this.moves += moves;
+            this.points += points;
+        }
+
+        public long getGames() {
+            return this.games;
+        }
+
+        public long getWins() {
+            return this.wins;
+        }
+
+        /**
+         * @return fraction of games won by the player (0 if no games)
+         */
+        public double getWinRate() {
+            return (this.games == 0) ? 0.0 : (double) this.wins / (double) this.games;
+        }
+
+        /**
+         * @return average moves per game (0 if no games)
+         */
+        public double getAverageMoves() {
+            return (this.games == 0) ? 0.0 : (double) this.moves / (double) this.games;
+        }
+
+        /**
+         * @return average points per game (0 if no games)
+         */
+        public double getAveragePoints() {
+            return (this.games == 0) ? 0.0 : (double) this.points / (double) this.games;
+        }
+
+        private Aggregate copy() {
+            Aggregate aggregate = new Aggregate();
+            aggregate.games = this.games;
+            aggregate.wins = this.wins;
+            aggregate.moves = this.moves;
+            aggregate.points = this.points;
+            return aggregate;
+        }
+    }
+
+    /**
+     * @return statistics shared by the whole application
+     */
+    public static StatsStore shared() {
+        return SHARED;
+    }
+
+    /**
+     * record the word lengths of a created or loaded dictionary
+     * @param dictionary_id id of dictionary
+     * @param histogram number of words of each length (index is the length)
+     */
+    public synchronized void recordDictionary (String dictionary_id, int[] histogram) {
+        int six = 0;
+        int ten_or_more = 0;
+        int total = 0;
+        for (int len = 0; len < histogram.length; len++) {
+            total += histogram[len];
+            if (len == 6) {
+                six += histogram[len];
+            }
+            else if (len > 9) {
+                ten_or_more += histogram[len];
+            }
+        }
+        this.brackets.put(dictionary_id, new Brackets(six, total - six - ten_or_more, ten_or_more));
+    }
+
+    /**
+     * record a finished game
+     * @param round finished game
+     */
+    public synchronized void recordGame (Round round) {
+        // same key as the rounds read back from the journal
+        String dictionary_id = HistoryJournal.truncate(round.getDictionaryId(), HistoryJournal.MAX_DICTIONARY_ID);
+        this.dictionaries.computeIfAbsent(dictionary_id, id -> new Aggregate())
+                .add(round.getMoves(), round.getPoints(), round.isVictory());
+        this.lengths.computeIfAbsent(round.getWord().length(), len -> new Aggregate())
+                .add(round.getMoves(), round.getPoints(), round.isVictory());
+        this.rounds++;
+    }
+
+    /**
+     * @param dictionary_id id of dictionary
+     * @return word length brackets of the dictionary or null if it wasn't created or loaded yet
+     */
+    public synchronized Brackets getBrackets (String dictionary_id) {
+        return this.brackets.get(dictionary_id);
+    }
+
+    /**
+     * @param dictionary_id id of dictionary
+     * @return totals of the games played with the dictionary
+     */
+    public synchronized Aggregate getDictionaryGames (String dictionary_id) {
+        Aggregate aggregate = this.dictionaries.get(
+                HistoryJournal.truncate(dictionary_id, HistoryJournal.MAX_DICTIONARY_ID));
+        return (aggregate == null) ? new Aggregate() : aggregate.copy();
+    }
+
+    /**
+     * @param length word length
+     * @return totals of the games played with words of the length
+     */
+    public synchronized Aggregate getLengthGames (int length) {
+        Aggregate aggregate = this.lengths.get(length);
+        return (aggregate == null) ? new Aggregate() : aggregate.copy();
+    }
+
+    /**
+     * @return word lengths of played games in increasing order with their totals
+     */
+    public synchronized Map<Integer, Aggregate> getLengthGames () {
+        Map<Integer, Aggregate> copy = new TreeMap<>();
+        for (Map.Entry<Integer, Aggregate> entry : this.lengths.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().copy());
+        }
+        return copy;
+    }
+
+    /**
+     * @return number of recorded games
+     */
+    public synchronized long getRounds () {
+        return this.rounds;
+    }
+
+    /**
+     * replace game statistics with the saved ones and record the games of the history played after the save
+     * a missing file rebuilds the game statistics from the whole history
+     * brackets recorded before loading are newer than the saved ones and are kept
+     * @param path saved statistics
+     * @param history game history
+     * @throws IOException failed to read statistics or history
+     */
+    public synchronized void load (Path path, HistoryStore history) throws IOException {
+        this.dictionaries.clear();
+        this.lengths.clear();
+        this.rounds = 0;
+
+        if (Files.isRegularFile(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    parse(line.split("\t"));
+                }
+            }
+            catch (NumberFormatException | IndexOutOfBoundsException e) {
+                // unreadable file, rebuild from history
+                System.err.println("StatsStore: ignoring saved statistics");
+                this.dictionaries.clear();
+                this.lengths.clear();
+                this.rounds = 0;
+            }
+        }
+
+        // history was reset after the save, rebuild game statistics
+        long size = history.size();
+        if (this.rounds > size) {
+            this.dictionaries.clear();
+            this.lengths.clear();
+            this.rounds = 0;
+        }
+
+        // games recorded after the last save
+        for (long from = this.rounds; from < size; from += HistoryIndex.BLOCK_SIZE) {
+            List<Round> missing = history.range(from, Math.min(from + HistoryIndex.BLOCK_SIZE, size));
+            for (Round round : missing) {
+                recordGame(round);
+            }
+        }
+    }
+
+    /**
+     * save statistics
+     * @param path statistics file
+     * @throws IOException failed to write statistics
+     */
+    public synchronized void save (Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(ROUNDS + "\t" + this.rounds + "\n");
+            for (Map.Entry<String, Brackets> entry : this.brackets.entrySet()) {
+                Brackets b = entry.getValue();
+                writer.write(BRACKETS + "\t" + entry.getKey() + "\t" + b.six + "\t" + b.seven_to_nine + "\t" +
+                        b.ten_or_more + "\n");
+            }
+            for (Map.Entry<String, Aggregate> entry : this.dictionaries.entrySet()) {
+                writer.write(DICTIONARY + "\t" + entry.getKey() + "\t" + format(entry.getValue()) + "\n");
+            }
+            for (Map.Entry<Integer, Aggregate> entry : this.lengths.entrySet()) {
+                writer.write(LENGTH + "\t" + entry.getKey() + "\t" + format(entry.getValue()) + "\n");
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * read one line of the saved file
+     */
+    private void parse (String[] fields) {
+        switch (fields[0]) {
+            case ROUNDS:
+                this.rounds = Long.parseLong(fields[1]);
+                break;
+            case BRACKETS:
+                this.brackets.putIfAbsent(fields[1], new Brackets(Integer.parseInt(fields[2]),
+                        Integer.parseInt(fields[3]), Integer.parseInt(fields[4])));
+                break;
+            case DICTIONARY:
+                this.dictionaries.put(fields[1], parseAggregate(fields, 2));
+                break;
+            case LENGTH:
+                this.lengths.put(Integer.parseInt(fields[1]), parseAggregate(fields, 2));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static Aggregate parseAggregate (String[] fields, int start) {
+        Aggregate aggregate = new Aggregate();
+        aggregate.games = Long.parseLong(fields[start]);
+        aggregate.wins = Long.parseLong(fields[start + 1]);
+        aggregate.moves = Long.parseLong(fields[start + 2]);
+        aggregate.points = Long.parseLong(fields[start + 3]);
+        return aggregate;
+    }
+
+    private static String format (Aggregate aggregate) {
+        return aggregate.games + "\t" + aggregate.wins + "\t" + aggregate.moves + "\t" + aggregate.points;
+    }
+}
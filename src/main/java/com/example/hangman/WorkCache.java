@@ -0,0 +1,247 @@
+package com.example.hangman;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * on-disk cache of OpenLibrary work descriptions used when creating dictionaries
+ * one file per work id (grouped by the host serving the works), so rebuilding a dictionary
+ * doesn't fetch the work again
+ * entries expire after a time to live, and the oldest entries are deleted once the cache
+ * grows past its size limit
+ * in offline mode works that aren't cached are never fetched
+ */
+public class WorkCache {
+    // default time to live of entries (one week)
+    private static final long DEFAULT_TTL = 7L * 24 * 60 * 60 * 1000;
+    // default size limit of cache directory
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    // first line of entries of works with and without description
+    private static final String FOUND = "1";
+    private static final String MISSING = "0";
+
+    private static final WorkCache SHARED =
+            new WorkCache(Paths.get(Dictionary.PATH, "cache"), DEFAULT_TTL, DEFAULT_MAX_BYTES);
+
+    static {
+        // java -Dhangman.offline=true ... only uses cached works
+        SHARED.setOffline(Boolean.getBoolean("hangman.offline"));
+    }
+
+    // directory of entries
+    private final Path directory;
+    // time to live of entries in milliseconds
+    private final long ttl;
+    // size limit of entries in bytes
+    private final long max_bytes;
+
+    // works that aren't cached must not be fetched
+    private volatile boolean offline;
+
+    // size of entries, computed on first store
+    private long total_bytes = -1;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * fetches a work when it isn't cached
+     */
+    public interface Loader {
+        /**
+         * @return description of work or null if the work doesn't have one
+         * @throws IOException failed to fetch work
+         */
+        String load() throws IOException;
+    }
+
+    /**
+     * @param directory directory of entries
+     * @param ttl time to live of entries in milliseconds
+     * @param max_bytes size limit of entries in bytes
+     */
+    public WorkCache (Path directory, long ttl, long max_bytes) {
+        this.directory = directory.toAbsolutePath();
+        this.ttl = ttl;
+        this.max_bytes = max_bytes;
+    }
+
+    /**
+     * @return cache used by Dictionary
+     */
+    public static WorkCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param offline never fetch works that aren't cached
+     */
+    public void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    /**
+     * @return works that aren't cached are never fetched
+     */
+    public boolean isOffline() {
+        return this.offline;
+    }
+
+    /**
+     * get description of a work from the cache or fetch and cache it
+     * @param base_url url of works serving the work
+     * @param work_id id of work
+     * @param loader fetches the work on a miss
+     * @return description of work or null if the work doesn't have one
+     * @throws IOException failed to fetch work, or work not cached in offline mode
+     */
+    public String get (String base_url, String work_id, Loader loader) throws IOException {
+        Path entry = entryPath(base_url, work_id);
+        File file = entry.toFile();
+
+        // cached and not expired, or any cached version in offline mode
+        if (file.isFile() && (this.offline || System.currentTimeMillis() - file.lastModified() < this.ttl)) {
+            try {
+                String content = new String(Files.readAllBytes(entry), StandardCharsets.UTF_8);
+                synchronized (this) {
+                    this.hits++;
+                }
+                return content.startsWith(FOUND) ? content.substring(FOUND.length() + 1) : null;
+            }
+            catch (IOException e) {
+                // unreadable entry, fetch again
+                System.err.println("WorkCache: ignoring entry of work " + work_id);
+            }
+        }
+
+        synchronized (this) {
+            this.misses++;
+        }
+        if (this.offline) {
+            throw new IOException("Work " + work_id + " is not cached and offline mode is enabled");
+        }
+
+        String description = loader.load();
+        try {
+            store(entry, (description == null) ? MISSING + "\n" : FOUND + "\n" + description);
+        }
+        catch (IOException e) {
+            // caching is best effort
+            System.err.println("WorkCache: error caching work " + work_id);
+        }
+        return description;
+    }
+
+    /**
+     * @return number of works served from the cache
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return number of works that weren't cached
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * delete every entry
+     * @throws IOException failed to delete entries
+     */
+    public synchronized void clear() throws IOException {
+        for (Path file : entries()) {
+            Files.deleteIfExists(file);
+        }
+        this.total_bytes = 0;
+    }
+
+    /**
+     * write entry atomically and evict oldest entries past the size limit
+     */
+    private synchronized void store (Path entry, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        Files.createDirectories(entry.getParent());
+
+        if (this.total_bytes < 0) {
+            this.total_bytes = 0;
+            for (Path file : entries()) {
+                this.total_bytes += file.toFile().length();
+            }
+        }
+        this.total_bytes -= entry.toFile().length();
+
+        Path temp = entry.resolveSibling(entry.getFileName() + ".tmp");
+        Files.write(temp, bytes);
+        Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+        this.total_bytes += bytes.length;
+
+        if (this.total_bytes > this.max_bytes) {
+            evict();
+        }
+    }
+
+    /**
+     * delete least recently stored entries until the cache fits in its size limit
+     */
+    private void evict () throws IOException {
+        List<Path> files = entries();
+        files.sort(Comparator.comparingLong(file -> file.toFile().lastModified()));
+        for (Path file : files) {
+            if (this.total_bytes <= this.max_bytes) {
+                break;
+            }
+            long size = file.toFile().length();
+            Files.deleteIfExists(file);
+            this.total_bytes -= size;
+        }
+    }
+
+    /**
+     * @return every entry file in the cache directory
+     */
+    private List<Path> entries () throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(this.directory)) {
+            return files;
+        }
+        try (Stream<Path> stream = Files.walk(this.directory, 2)) {
+            stream.filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().endsWith(".txt"))
+                    .forEach(files::add);
+        }
+        return files;
+    }
+
+    /**
+     * @return file of a work's entry, in a directory named after the host serving the work
+     */
+    private Path entryPath (String base_url, String work_id) {
+        String host;
+        try {
+            URL url = new URL(base_url);
+            host = url.getHost() + ((url.getPort() == -1) ? "" : "_" + url.getPort());
+        }
+        catch (MalformedURLException e) {
+            host = "unknown";
+        }
+        return this.directory.resolve(sanitize(host)).resolve(sanitize(work_id) + ".txt");
+    }
+
+    private static String sanitize (String name) {
+        return name.replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+}
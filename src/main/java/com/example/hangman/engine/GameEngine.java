@@ -0,0 +1,392 @@
+package com.example.hangman.engine;
+
+import com.example.hangman.CandidateSet;
+import com.example.hangman.DictionaryIndex;
+import com.example.hangman.metrics.Metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * state and rules of a single game, without any user interface
+ * accessors return numbers and characters instead of display strings, so the engine can run
+ * in a server or benchmark without the JavaFX toolkit
+ * positions start from 0 and letters are 'A' to 'Z'
+ * an engine is not thread-safe, every game must be confined to one thread at a time
+ * a started game counts among the games in progress (Metrics.ACTIVE_CANDIDATES) until it finishes,
+ * callers dropping an unfinished game must call abandon(), otherwise it stays counted
+ */
+public class GameEngine {
+    // wrong moves before loss
+    public static final int MAX_TRIES = 6;
+
+    // game's target word
+    private String word = "";
+
+    // letters found so far, '\u0000' for a missing letter
+    private char[] displayed_word = new char[0];
+
+    // letters found by a correct guess (not revealed by forfeiting)
+    private boolean[] found;
+
+    // dictionary words fitting current state of word
+    private CandidateSet possible_answers;
+
+    // each row represents a letter of the selected word
+    // each column the count of possible answers containing every letter in the alphabet (first item is 'A', last 'Z')
+    private int[][] probabilities = new int[0][];
+
+    // probabilities are still the shared counts of the dictionary, copied before the first move changes them
+    private boolean shared_probabilities;
+
+    // points accumulated in this game
+    private int points;
+
+    // total number of moves executed in current game
+    private int total_moves;
+
+    // number of successful moves in current game
+    private int correct_moves;
+
+    // remaining wrong moves before loss
+    private int tries = MAX_TRIES;
+
+    // game is finished
+    private boolean finished;
+
+    // player won the game
+    private boolean victory;
+
+    // letter counts are updated from removed words instead of recounted
+    private boolean incremental = true;
+
+    // check incrementally maintained letter counts against a full recount
+    private boolean validate_counts;
+
+    // number of possible answers this game is counted with in Metrics.ACTIVE_CANDIDATES, -1 while not in progress
+    private long active_candidates = -1;
+
+    // scratch buffer reused by rankLetters()
+    private final int[] rank_keys = new int[26];
+
+
+    /**
+     * start a new game with a random word of the dictionary
+     * @param dictionary indexed dictionary, shared between games
+     */
+    public void start (DictionaryIndex dictionary) {
+        start(dictionary, ThreadLocalRandom.current().nextInt(0, dictionary.size()));
+    }
+
+    /**
+     * start a new game
+     * @param dictionary indexed dictionary, shared between games
+     * @param ordinal position of the target word in the dictionary (see DictionaryIndex.getWord)
+     */
+    public void start (DictionaryIndex dictionary, int ordinal) {
+        long start = System.nanoTime();
+        this.word = dictionary.getWord(ordinal);
+        int length = this.word.length();
+        this.displayed_word = new char[length];
+        this.found = new boolean[length];
+        this.points = 0;
+        this.total_moves = 0;
+        this.correct_moves = 0;
+        this.tries = MAX_TRIES;
+        this.victory = false;
+        this.finished = false;
+
+        // dictionary words with same length are the possible answers
+        // and their precomputed letter counts are the initial probabilities
+        // both refer to the shared dictionary until a move changes them, so starting allocates no per-word state
+        this.possible_answers = new CandidateSet(dictionary.getMasks(length));
+        this.possible_answers.setValidation(this.validate_counts);
+        this.probabilities = dictionary.getCounts(length);
+        this.shared_probabilities = true;
+        Metrics.GAME_START.record(System.nanoTime() - start);
+        Metrics.CANDIDATES.record(this.possible_answers.size());
+        updateActive();
+    }
+
+    /**
+     * @param position position in word
+     * @param letter letter to try
+     * @return move can be made: game in session, letter from 'A' to 'Z' and letter of position still missing
+     */
+    public boolean isLegalMove (int position, char letter) {
+        return this.possible_answers != null && !this.finished && letter >= 'A' && letter <= 'Z' &&
+                position >= 0 && position < this.displayed_word.length && this.displayed_word[position] == '\u0000';
+    }
+
+    /**
+     * try letter in position
+     * if successful insert letter and increase points based on the fraction of possible answers
+     * having the letter in the position, otherwise lose a try and up to 15 points
+     * possible answers and letter counts are updated before returning
+     * @param position position in word
+     * @param letter letter to try
+     * @return game is finished
+     * @throws IllegalArgumentException illegal move (see isLegalMove)
+     */
+    public boolean move (int position, char letter) {
+        if (!isLegalMove(position, letter)) {
+            throw new IllegalArgumentException("GameEngine.move(): illegal move " + letter + " " + position);
+        }
+        long start = System.nanoTime();
+        this.total_moves++;
+        boolean success = this.word.charAt(position) == letter;
+
+        // correct guess
+        if (success) {
+            this.found[position] = true;
+            this.correct_moves++;
+            this.displayed_word[position] = letter;
+
+            float probability = (float) this.probabilities[position][letter - 'A']
+                                    / (float) this.possible_answers.size();
+
+            // increase points based on probability of letter in current position
+            if (probability >= 0.6f) {
+                this.points += 5;
+            }
+            else if (probability >= 0.4f) {
+                this.points += 10;
+            }
+            else if (probability >= 0.25f) {
+                this.points += 15;
+            }
+            else {
+                this.points += 30;
+            }
+
+            // victory
+            if (this.correct_moves == this.displayed_word.length) {
+                this.victory = true;
+                this.finished = true;
+            }
+        }
+
+        // wrong guess
+        else {
+            this.points -= Math.min(this.points, 15);
+
+            // defeat
+            if (--this.tries == 0) {
+                this.victory = false;
+                this.finished = true;
+            }
+        }
+
+        // copy shared counts before updating them
+        if (this.shared_probabilities) {
+            int[][] counts = new int[this.probabilities.length][];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = this.probabilities[i].clone();
+            }
+            this.probabilities = counts;
+            this.shared_probabilities = false;
+        }
+
+        // correct guess keeps the words with the letter in the position, wrong guess removes them
+        if (this.incremental) {
+            this.possible_answers.filter(position, letter, success, this.probabilities);
+        }
+        else {
+            int removed = success
+                    ? this.possible_answers.keep(position, letter)
+                    : this.possible_answers.remove(position, letter);
+            if (removed > 0) {
+                this.possible_answers.countAll(this.probabilities);
+            }
+        }
+        Metrics.MOVE.record(System.nanoTime() - start);
+        Metrics.CANDIDATES.record(this.possible_answers.size());
+        updateActive();
+        return this.finished;
+    }
+
+    /**
+     * give up: reveal the word, lose every try and all points
+     */
+    public void forfeit () {
+        this.tries = 0;
+        this.points = 0;
+        this.victory = false;
+        this.finished = true;
+        if (this.possible_answers != null) {
+            this.possible_answers.clear();
+        }
+        for (int i = 0; i < this.displayed_word.length; i++) {
+            this.displayed_word[i] = this.word.charAt(i);
+        }
+        updateActive();
+    }
+
+    /**
+     * stop counting an unfinished game among the games in progress (see Metrics.ACTIVE_CANDIDATES),
+     * for games dropped before they finish; the state stays readable and start() begins a new game
+     */
+    public void abandon () {
+        Metrics.ACTIVE_CANDIDATES.update(this.active_candidates, -1);
+        this.active_candidates = -1;
+    }
+
+    /**
+     * count the possible answers of this game among the games in progress, until it finishes
+     */
+    private void updateActive () {
+        long candidates = this.finished ? -1 : this.possible_answers.size();
+        Metrics.ACTIVE_CANDIDATES.update(this.active_candidates, candidates);
+        this.active_candidates = candidates;
+    }
+
+    /**
+     * choose how letter counts are maintained after every move
+     * @param incremental subtract the removed words (default) or recount the remaining words
+     */
+    public void setIncrementalCounts (boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * check incrementally maintained letter counts against a full recount after every move
+     * applies to games started after the call, meant for tests
+     * @param validate enable the check
+     */
+    public void setValidateCounts (boolean validate) {
+        this.validate_counts = validate;
+    }
+
+    /**
+     * order letters by number of possible answers having them in a position, without allocating
+     * letters with the same count are ordered from 'Z' to 'A'
+     * @param position position in word
+     * @param letters array of at least 26 characters to fill, most probable letter first
+     */
+    public void rankLetters (int position, char[] letters) {
+        // pack count and letter index in one int so that sorting the ints
+        // sorts by count and then by letter
+        int[] keys = this.rank_keys;
+        int[] probs = this.probabilities[position];
+        for (int l = 0; l < 26; l++) {
+            keys[l] = (probs[l] << 5) | l;
+        }
+
+        // insertion sort in increasing order, cheap for 26 items
+        for (int i = 1; i < 26; i++) {
+            int key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            keys[j + 1] = key;
+        }
+
+        // from end to beginning because sorting is in increasing order
+        for (int i = 0; i < 26; i++) {
+            letters[i] = (char) ('A' + (keys[25 - i] & 31));
+        }
+    }
+
+    /**
+     * @param position position in word
+     * @param letter letter from 'A' to 'Z'
+     * @return number of possible answers having the letter in the position
+     */
+    public int getCount (int position, char letter) {
+        return this.probabilities[position][letter - 'A'];
+    }
+
+    /**
+     * @return number of possible answers in dictionary (0 before the first game)
+     */
+    public int getCandidateCount () {
+        return (this.possible_answers == null) ? 0 : this.possible_answers.size();
+    }
+
+    /**
+     * @param position position in word
+     * @return letter in position or '\u0000' if still missing
+     */
+    public char getLetter (int position) {
+        return this.displayed_word[position];
+    }
+
+    /**
+     * @param position position in word
+     * @return letter in position was found by a correct guess
+     */
+    public boolean isFound (int position) {
+        return this.found[position];
+    }
+
+    /**
+     * @return a game was started
+     */
+    public boolean isStarted () {
+        return this.possible_answers != null;
+    }
+
+    /**
+     * @return target word ("" before the first game)
+     */
+    public String getWord () {
+        return this.word;
+    }
+
+    /**
+     * @return length of target word
+     */
+    public int getLength () {
+        return this.displayed_word.length;
+    }
+
+    /**
+     * @return player's points
+     */
+    public int getPoints () {
+        return this.points;
+    }
+
+    /**
+     * @return total moves made in game
+     */
+    public int getTotalMoves () {
+        return this.total_moves;
+    }
+
+    /**
+     * @return successful moves made in game
+     */
+    public int getCorrectMoves () {
+        return this.correct_moves;
+    }
+
+    /**
+     * @return remaining wrong moves before loss
+     */
+    public int getTriesLeft () {
+        return this.tries;
+    }
+
+    /**
+     * @return percentage of successful moves (0 if no moves)
+     */
+    public double getSuccessRate () {
+        return (this.total_moves == 0) ? 0.0 : (double) (this.correct_moves * 100) / (double) this.total_moves;
+    }
+
+    /**
+     * @return game is finished
+     */
+    public boolean isFinished () {
+        return this.finished;
+    }
+
+    /**
+     * @return game is finished and player won
+     */
+    public boolean isVictory () {
+        return this.victory;
+    }
+}
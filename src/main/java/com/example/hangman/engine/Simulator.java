@@ -0,0 +1,185 @@
+package com.example.hangman.engine;
+
+import com.example.hangman.DictionaryCache;
+import com.example.hangman.DictionaryIndex;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * self-play simulator: the Solver plays many games of a dictionary in parallel on a fork-join pool
+ * games are split in ranges until a range is small enough for one task, and every task plays its
+ * games with its own GameEngine and Solver, so workers share only the read-only DictionaryIndex
+ * game i targets word i % size of the dictionary, so every word is played equally often and a run
+ * is reproducible
+ */
+public class Simulator {
+    // games played by one task without splitting
+    private static final int LEAF_GAMES = 2048;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * totals of a simulation
+     */
+    public static class Report {
+        private long games;
+        private long wins;
+        private long points;
+        private long moves;
+        private long nanos;
+
+        private void add (Report other) {
+            this.games += other.games;
+            this.wins += other.wins;
+            this.points += other.points;
+            this.moves += other.moves;
+        }
+
+        public long getGames() {
+            return this.games;
+        }
+
+        public long getWins() {
+            return this.wins;
+        }
+
+        /**
+         * @return fraction of games won by the solver
+         */
+        public double getWinRate() {
+            return (this.games == 0) ? 0.0 : (double) this.wins / (double) this.games;
+        }
+
+        /**
+         * @return average points per game
+         */
+        public double getMeanPoints() {
+            return (this.games == 0) ? 0.0 : (double) this.points / (double) this.games;
+        }
+
+        /**
+         * @return average moves per game
+         */
+        public double getMeanMoves() {
+            return (this.games == 0) ? 0.0 : (double) this.moves / (double) this.games;
+        }
+
+        /**
+         * @return wall clock time of the simulation in nanoseconds
+         */
+        public long getNanos() {
+            return this.nanos;
+        }
+
+        /**
+         * @return games played per second
+         */
+        public double getGamesPerSecond() {
+            return (this.nanos == 0) ? 0.0 : this.games * 1e9 / this.nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d games, win rate %.2f%%, mean points %.2f, mean moves %.2f, %.0f games/sec",
+                    this.games, getWinRate() * 100, getMeanPoints(), getMeanMoves(), getGamesPerSecond());
+        }
+    }
+
+    /**
+     * games [from, to) of a simulation
+     */
+    private static class Task extends RecursiveTask<Report> {
+        private static final long serialVersionUID = 1L;
+
+        private final DictionaryIndex dictionary;
+        private final long from;
+        private final long to;
+
+        private Task(DictionaryIndex dictionary, long from, long to) {
+            this.dictionary = dictionary;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Report compute() {
+            // split large ranges in halves
+            if (this.to - this.from > LEAF_GAMES) {
+                long middle = (this.from + this.to) >>> 1;
+                Task left = new Task(this.dictionary, this.from, middle);
+                left.fork();
+                Report report = new Task(this.dictionary, middle, this.to).compute();
+                report.add(left.join());
+                return report;
+            }
+
+            Report report = new Report();
+            GameEngine engine = new GameEngine();
+            Solver solver = new Solver();
+            int size = this.dictionary.size();
+            for (long game = this.from; game < this.to; game++) {
+                engine.start(this.dictionary, (int) (game % size));
+                if (solver.play(engine)) {
+                    report.wins++;
+                }
+                report.games++;
+                report.points += engine.getPoints();
+                report.moves += engine.getTotalMoves();
+            }
+            return report;
+        }
+    }
+
+    /**
+     * @param parallelism number of worker threads
+     */
+    public Simulator (int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * play games of a dictionary
+     * @param dictionary indexed dictionary
+     * @param games number of games
+     * @return totals of the games
+     */
+    public Report run (DictionaryIndex dictionary, long games) {
+        long start = System.nanoTime();
+        Report report = this.pool.invoke(new Task(dictionary, 0, games));
+        report.nanos = System.nanoTime() - start;
+        return report;
+    }
+
+    /**
+     * stop worker threads
+     */
+    public void shutdown () {
+        this.pool.shutdown();
+    }
+
+    /**
+     * simulate games of a dictionary and print the report
+     * @param args dictionary id, optional number of games (default 1000000)
+     *             and number of worker threads (default number of cores)
+     * @throws Exception failed to load dictionary
+     */
+    public static void main (String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: --simulate <dictionary id> [games] [threads]");
+            return;
+        }
+        long games = (args.length > 1) ? Long.parseLong(args[1]) : 1_000_000L;
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        DictionaryIndex dictionary = DictionaryCache.shared().get(args[0]);
+        Simulator simulator = new Simulator(threads);
+        try {
+            System.out.println(args[0] + ": " + simulator.run(dictionary, games));
+        }
+        finally {
+            simulator.shutdown();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.hangman.engine;
+
+/**
+ * automated player
+ * picks the (position, letter) move most likely to be correct: the letter found in the most possible
+ * answers at any missing position, so a certain letter is always played first
+ * ties go to the first missing position and then to the letter ranked first by GameEngine.rankLetters
+ * a solver keeps no state between moves and never allocates, one instance can play any number of games
+ * on one thread
+ */
+public class Solver {
+    // chosen move
+    private int position = -1;
+    private char letter;
+
+    // scratch buffer for rankLetters()
+    private final char[] letters = new char[26];
+
+    /**
+     * choose the next move of a game, read it with getPosition() and getLetter()
+     * @param engine game in session
+     * @return a move was chosen (false if the game is finished)
+     */
+    public boolean choose (GameEngine engine) {
+        this.position = -1;
+        if (!engine.isStarted() || engine.isFinished()) {
+            return false;
+        }
+
+        int best = 0;
+        for (int i = 0; i < engine.getLength(); i++) {
+            if (engine.getLetter(i) != '\u0000') {
+                continue;
+            }
+            // most frequent letter of the position
+            engine.rankLetters(i, this.letters);
+            int count = engine.getCount(i, this.letters[0]);
+            if (count > best) {
+                best = count;
+                this.position = i;
+                this.letter = this.letters[0];
+            }
+        }
+        return this.position >= 0;
+    }
+
+    /**
+     * play a game until it is finished
+     * @param engine started game
+     * @return player won the game
+     */
+    public boolean play (GameEngine engine) {
+        while (choose(engine)) {
+            engine.move(this.position, this.letter);
+        }
+        return engine.isVictory();
+    }
+
+    /**
+     * @return position of chosen move (starting from 0)
+     */
+    public int getPosition () {
+        return this.position;
+    }
+
+    /**
+     * @return letter of chosen move
+     */
+    public char getLetter () {
+        return this.letter;
+    }
+}
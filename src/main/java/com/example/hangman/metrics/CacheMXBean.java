@@ -0,0 +1,47 @@
+package com.example.hangman.metrics;
+
+/**
+ * JMX view of the shared DictionaryCache and WorkCache and of the RenderCache of games,
+ * registered as com.example.hangman:type=Cache
+ */
+public interface CacheMXBean {
+    long getDictionaryHits();
+
+    long getDictionaryMisses();
+
+    long getDictionaryEvictions();
+
+    /**
+     * @return number of cached indexed dictionaries
+     */
+    int getDictionarySize();
+
+    /**
+     * @return fraction of DictionaryCache lookups served from memory (0 before the first lookup)
+     */
+    double getDictionaryHitRate();
+
+    long getWorkHits();
+
+    long getWorkMisses();
+
+    /**
+     * @return fraction of WorkCache lookups served from disk instead of Open Library (0 before the first lookup)
+     */
+    double getWorkHitRate();
+
+    /**
+     * @return display string parts of every game returned without rendering (see RenderCache)
+     */
+    long getRenderHits();
+
+    /**
+     * @return display string parts of every game rendered again
+     */
+    long getRenderMisses();
+
+    /**
+     * @return fraction of display string parts returned without rendering (0 before the first use)
+     */
+    double getRenderHitRate();
+}
@@ -0,0 +1,44 @@
+package com.example.hangman.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of dictionary loading and game play, registered as com.example.hangman:type=Engine
+ * latencies are in nanoseconds
+ */
+public interface EngineMXBean {
+    /**
+     * @return latency of Dictionary.load() and Dictionary.loadIndex()
+     */
+    HistogramSnapshot getDictionaryLoad();
+
+    /**
+     * @return latency of starting a game
+     */
+    HistogramSnapshot getGameStart();
+
+    /**
+     * @return latency of a move, including the update of possible answers and letter counts
+     */
+    HistogramSnapshot getMove();
+
+    /**
+     * @return number of possible answers after every game start and move
+     */
+    HistogramSnapshot getCandidates();
+
+    /**
+     * @return number of possible answers of every game in progress (count is the number of such games)
+     */
+    HistogramSnapshot getActiveCandidates();
+
+    /**
+     * @return dictionaries rejected by Dictionary.load() and loadIndex(), by exception type (e.g. UnbalancedException)
+     */
+    Map<String, Long> getValidationFailures();
+
+    /**
+     * forget recorded latencies, sizes and failures (games in progress are still counted)
+     */
+    void reset();
+}
@@ -0,0 +1,72 @@
+package com.example.hangman.metrics;
+
+/**
+ * values recorded by a Histogram up to some point or held by a LiveHistogram at some point,
+ * exposed over JMX as composite data
+ * percentiles are upper bounds of power of two buckets (see Histogram)
+ */
+public class HistogramSnapshot {
+    private final long count;
+    private final double mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long max;
+
+    HistogramSnapshot (long count, double mean, long p50, long p90, long p99, long max) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    /**
+     * @return number of recorded values
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return average of recorded values (0 if nothing was recorded)
+     */
+    public double getMean() {
+        return this.mean;
+    }
+
+    /**
+     * @return value at most half of the recorded values exceed
+     */
+    public long getP50() {
+        return this.p50;
+    }
+
+    /**
+     * @return value at most 10% of the recorded values exceed
+     */
+    public long getP90() {
+        return this.p90;
+    }
+
+    /**
+     * @return value at most 1% of the recorded values exceed
+     */
+    public long getP99() {
+        return this.p99;
+    }
+
+    /**
+     * @return largest recorded value (upper bound of its bucket for a LiveHistogram)
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.0f p50=%d p90=%d p99=%d max=%d",
+                this.count, this.mean, this.p50, this.p90, this.p99, this.max);
+    }
+}
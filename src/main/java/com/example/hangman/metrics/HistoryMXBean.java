@@ -0,0 +1,23 @@
+package com.example.hangman.metrics;
+
+/**
+ * JMX view of the game history writer of the open Session, registered as com.example.hangman:type=History
+ * while the history is open
+ */
+public interface HistoryMXBean {
+    /**
+     * @return games waiting to be written
+     */
+    int getQueueDepth();
+
+    long getWritten();
+
+    long getFailed();
+
+    long getBatches();
+
+    /**
+     * @return latency of writing and syncing a batch of games in nanoseconds
+     */
+    HistogramSnapshot getBatchWrite();
+}
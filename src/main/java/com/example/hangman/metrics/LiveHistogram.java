@@ -0,0 +1,64 @@
+package com.example.hangman.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * histogram of the current values of live items (candidate set sizes of the active games), with the
+ * power of two buckets of Histogram
+ * an item enters with a value, moves to other values and leaves, so the snapshot describes the items
+ * alive at the time instead of every value seen; the owner of an item remembers its value and passes
+ * it to update()
+ * updating is lock-free and cheap enough for every move of every game
+ */
+public class LiveHistogram {
+    private final LongAdder[] buckets = new LongAdder[Histogram.BUCKETS];
+    private final LongAdder sum = new LongAdder();
+
+    public LiveHistogram () {
+        for (int i = 0; i < Histogram.BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * change the value of an item
+     * @param from previous value, negative if the item enters
+     * @param to new value, negative if the item leaves
+     */
+    public void update (long from, long to) {
+        if (from == to) {
+            return;
+        }
+        int from_bucket = (from < 0) ? -1 : Histogram.bucket(from);
+        int to_bucket = (to < 0) ? -1 : Histogram.bucket(to);
+        if (from_bucket != to_bucket) {
+            if (from_bucket >= 0) {
+                this.buckets[from_bucket].decrement();
+            }
+            if (to_bucket >= 0) {
+                this.buckets[to_bucket].increment();
+            }
+        }
+        this.sum.add(Math.max(0, to) - Math.max(0, from));
+    }
+
+    /**
+     * concurrent updates may be seen partly, the snapshot is exact once updates stop
+     * @return number of live items and percentiles of their values
+     */
+    public HistogramSnapshot snapshot () {
+        long[] counts = new long[Histogram.BUCKETS];
+        long total = 0;
+        int highest = -1;
+        for (int i = 0; i < Histogram.BUCKETS; i++) {
+            counts[i] = Math.max(0, this.buckets[i].sum());
+            total += counts[i];
+            if (counts[i] > 0) {
+                highest = i;
+            }
+        }
+        return new HistogramSnapshot(total, (total == 0) ? 0.0 : (double) Math.max(0, this.sum.sum()) / total,
+                Histogram.percentile(counts, total, 0.5), Histogram.percentile(counts, total, 0.9),
+                Histogram.percentile(counts, total, 0.99), (highest < 0) ? 0 : Histogram.upperBound(highest));
+    }
+}
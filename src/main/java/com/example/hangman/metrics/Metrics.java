@@ -0,0 +1,270 @@
+package com.example.hangman.metrics;
+
+import com.example.hangman.DictionaryCache;
+import com.example.hangman.HistoryWriter;
+import com.example.hangman.WorkCache;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * runtime metrics of the engine and persistence, recorded by the instrumented classes
+ * and published as MXBeans on the platform MBean server (browse them with jconsole or VisualVM):
+ * com.example.hangman:type=Engine (see EngineMXBean), com.example.hangman:type=Cache (see CacheMXBean)
+ * and com.example.hangman:type=History (see HistoryMXBean) while a Session has its history open
+ * every method is thread-safe
+ */
+public class Metrics {
+    public static final String DOMAIN = "com.example.hangman";
+
+    // latencies in nanoseconds
+    public static final Histogram DICTIONARY_LOAD = new Histogram();
+    public static final Histogram GAME_START = new Histogram();
+    public static final Histogram MOVE = new Histogram();
+    public static final Histogram HISTORY_WRITE = new Histogram();
+
+    // number of possible answers after every game start and move
+    public static final Histogram CANDIDATES = new Histogram();
+
+    // number of possible answers of every active game (started, not finished nor abandoned)
+    public static final LiveHistogram ACTIVE_CANDIDATES = new LiveHistogram();
+
+    // display strings of games returned from their RenderCache and rendered again
+    public static final LongAdder RENDER_HITS = new LongAdder();
+    public static final LongAdder RENDER_MISSES = new LongAdder();
+
+    // dictionaries rejected by Dictionary.load() and loadIndex(), by exception type
+    private static final ConcurrentHashMap<String, LongAdder> validation_failures = new ConcurrentHashMap<>();
+
+    // history writer of the open Session (null if none)
+    private static volatile HistoryWriter history_writer;
+
+    // guards registering and unregistering the history writer
+    private static final Object history_lock = new Object();
+
+    static {
+        register("Engine", new Engine());
+        register("Cache", new Cache());
+    }
+
+    private Metrics() {}
+
+    /**
+     * record a dictionary rejected while loading
+     * @param e validation error (e.g. Exceptions.UnbalancedException)
+     */
+    public static void validationFailed (Exception e) {
+        validation_failures.computeIfAbsent(e.getClass().getSimpleName(), type -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return dictionaries rejected by Dictionary.load() and loadIndex(), by exception type
+     */
+    public static Map<String, Long> getValidationFailures () {
+        Map<String, Long> failures = new TreeMap<>();
+        validation_failures.forEach((type, count) -> failures.put(type, count.sum()));
+        return failures;
+    }
+
+    /**
+     * publish the history writer of a Session (replaces the previous one)
+     * @param writer background writer of game history
+     */
+    public static void registerHistory (HistoryWriter writer) {
+        synchronized (history_lock) {
+            history_writer = writer;
+            register("History", new History());
+        }
+    }
+
+    /**
+     * stop publishing a history writer, when the Session closes its history
+     * @param writer writer given to registerHistory()
+     */
+    public static void unregisterHistory (HistoryWriter writer) {
+        synchronized (history_lock) {
+            if (history_writer != writer) {
+                return;
+            }
+            history_writer = null;
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName name = name("History");
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            }
+            catch (JMException e) {
+                System.err.println("Metrics: error unregistering History");
+            }
+        }
+    }
+
+    /**
+     * register bean, replacing a bean with the same name
+     */
+    private static void register (String type, Object bean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = name(type);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(bean, name);
+        }
+        catch (JMException | SecurityException e) {
+            // metrics are optional, the application runs without them
+            System.err.println("Metrics: error registering " + type);
+        }
+    }
+
+    private static ObjectName name (String type) throws JMException {
+        return new ObjectName(DOMAIN + ":type=" + type);
+    }
+
+    private static double rate (long hits, long misses) {
+        return (hits + misses == 0) ? 0.0 : (double) hits / (hits + misses);
+    }
+
+
+    private static class Engine implements EngineMXBean {
+        @Override
+        public HistogramSnapshot getDictionaryLoad() {
+            return DICTIONARY_LOAD.snapshot();
+        }
+
+        @Override
+        public HistogramSnapshot getGameStart() {
+            return GAME_START.snapshot();
+        }
+
+        @Override
+        public HistogramSnapshot getMove() {
+            return MOVE.snapshot();
+        }
+
+        @Override
+        public HistogramSnapshot getCandidates() {
+            return CANDIDATES.snapshot();
+        }
+
+        @Override
+        public HistogramSnapshot getActiveCandidates() {
+            return ACTIVE_CANDIDATES.snapshot();
+        }
+
+        @Override
+        public Map<String, Long> getValidationFailures() {
+            return Metrics.getValidationFailures();
+        }
+
+        @Override
+        public void reset() {
+            DICTIONARY_LOAD.reset();
+            GAME_START.reset();
+            MOVE.reset();
+            CANDIDATES.reset();
+            validation_failures.clear();
+        }
+    }
+
+
+    private static class Cache implements CacheMXBean {
+        @Override
+        public long getDictionaryHits() {
+            return DictionaryCache.shared().getHits();
+        }
+
+        @Override
+        public long getDictionaryMisses() {
+            return DictionaryCache.shared().getMisses();
+        }
+
+        @Override
+        public long getDictionaryEvictions() {
+            return DictionaryCache.shared().getEvictions();
+        }
+
+        @Override
+        public int getDictionarySize() {
+            return DictionaryCache.shared().size();
+        }
+
+        @Override
+        public double getDictionaryHitRate() {
+            DictionaryCache cache = DictionaryCache.shared();
+            return rate(cache.getHits(), cache.getMisses());
+        }
+
+        @Override
+        public long getWorkHits() {
+            return WorkCache.shared().getHits();
+        }
+
+        @Override
+        public long getWorkMisses() {
+            return WorkCache.shared().getMisses();
+        }
+
+        @Override
+        public double getWorkHitRate() {
+            WorkCache cache = WorkCache.shared();
+            synchronized (cache) {
+                return rate(cache.getHits(), cache.getMisses());
+            }
+        }
+
+        @Override
+        public long getRenderHits() {
+            return RENDER_HITS.sum();
+        }
+
+        @Override
+        public long getRenderMisses() {
+            return RENDER_MISSES.sum();
+        }
+
+        @Override
+        public double getRenderHitRate() {
+            return rate(RENDER_HITS.sum(), RENDER_MISSES.sum());
+        }
+    }
+
+
+    private static class History implements HistoryMXBean {
+        @Override
+        public int getQueueDepth() {
+            HistoryWriter writer = history_writer;
+            return (writer == null) ? 0 : writer.getQueueDepth();
+        }
+
+        @Override
+        public long getWritten() {
+            HistoryWriter writer = history_writer;
+            return (writer == null) ? 0 : writer.getWritten();
+        }
+
+        @Override
+        public long getFailed() {
+            HistoryWriter writer = history_writer;
+            return (writer == null) ? 0 : writer.getFailed();
+        }
+
+        @Override
+        public long getBatches() {
+            HistoryWriter writer = history_writer;
+            return (writer == null) ? 0 : writer.getBatches();
+        }
+
+        @Override
+        public HistogramSnapshot getBatchWrite() {
+            return HISTORY_WRITE.snapshot();
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.example.hangman.server;
+
+import com.example.hangman.DictionaryCache;
+import com.example.hangman.DictionaryIndex;
+import com.example.hangman.engine.GameEngine;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * local HTTP/JSON server hosting many independent games, listening on the loopback address only
+ * games are GameEngines identified by a number, they share the read-only indexed dictionaries of the
+ * DictionaryCache and every request locks only the game it plays while reading or changing it (responses
+ * are written after releasing the lock), so requests for different games run in parallel on a fixed pool
+ * of worker threads
+ * finished games are removed FINISHED_TTL after their last request and unfinished games IDLE_TTL after it,
+ * so abandoned games don't fill the server
+ *
+ * endpoints (request and response bodies are JSON objects, errors are {"error": message}):
+ * POST /games {"dictionary": id} starts a game
+ * GET /games/{game} returns the state of a game
+ * POST /games/{game}/moves {"position": p, "letter": "A"} tries a letter, positions start from 0
+ * POST /games/{game}/forfeit gives up a game
+ * DELETE /games/{game} removes a game and returns its last state
+ */
+public class GameServer {
+    public static final int DEFAULT_PORT = 8080;
+
+    // games kept at most
+    private static final int MAX_GAMES = 100_000;
+
+    // time a game is kept after its last request, once finished and while unfinished
+    private static final long FINISHED_TTL = TimeUnit.MINUTES.toNanos(5);
+    private static final long IDLE_TTL = TimeUnit.MINUTES.toNanos(30);
+
+    // time between two sweeps for expired games
+    private static final long SWEEP_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    // largest accepted request body
+    private static final int MAX_BODY = 4096;
+
+    static {
+        // send small responses right away instead of waiting for delayed acks (Nagle's algorithm),
+        // read by the JDK server when the first server is created
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService sweeper;
+
+    // hosted games, every engine is guarded by its own monitor
+    private final ConcurrentHashMap<Long, ServerGame> games = new ConcurrentHashMap<>();
+    private final AtomicLong next_id = new AtomicLong();
+
+    /**
+     * create server on the loopback address, call start() to accept requests
+     * @param port port to listen on (0 picks a free port)
+     * @param threads number of worker threads
+     * @throws IOException failed to bind port
+     */
+    public GameServer (int port, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("GameServer threads must be positive");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "game-server-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "game-server-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.setExecutor(this.workers);
+        this.server.createContext("/games", this::handle);
+    }
+
+    /**
+     * start accepting requests
+     */
+    public void start () {
+        this.server.start();
+        this.sweeper.scheduleWithFixedDelay(this::evictExpired, SWEEP_INTERVAL, SWEEP_INTERVAL, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * stop accepting requests and stop worker threads
+     */
+    public void stop () {
+        this.server.stop(0);
+        this.sweeper.shutdownNow();
+        this.workers.shutdown();
+        try {
+            this.workers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return port the server listens on
+     */
+    public int getPort () {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * @return number of hosted games
+     */
+    public int getGameCount () {
+        return this.games.size();
+    }
+
+    /**
+     * remove finished games idle for FINISHED_TTL and unfinished games idle for IDLE_TTL
+     * @return number of removed games
+     */
+    public int evictExpired () {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (ServerGame game : this.games.values()) {
+            if (game.isExpired(now) && this.games.remove(game.id, game)) {
+                synchronized (game.engine) {
+                    game.engine.abandon();
+                }
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * route a request by method and path
+     */
+    private void handle (HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            // path[0] is empty and path[1] is "games"
+            if (path.length == 2 && method.equals("POST")) {
+                create(exchange);
+            }
+            else if (path.length == 3 && method.equals("GET")) {
+                state(exchange, game(path[2]));
+            }
+            else if (path.length == 3 && method.equals("DELETE")) {
+                delete(exchange, path[2]);
+            }
+            else if (path.length == 4 && path[3].equals("moves") && method.equals("POST")) {
+                move(exchange, game(path[2]));
+            }
+            else if (path.length == 4 && path[3].equals("forfeit") && method.equals("POST")) {
+                forfeit(exchange, game(path[2]));
+            }
+            else {
+                throw new RequestException(404, "Unknown endpoint " + method + " " + exchange.getRequestURI());
+            }
+        }
+        catch (RequestException e) {
+            send(exchange, e.status, Json.createObjectBuilder().add("error", e.getMessage()).build());
+        }
+        catch (RuntimeException e) {
+            System.err.println("GameServer: error handling " + exchange.getRequestURI());
+            e.printStackTrace();
+            send(exchange, 500, Json.createObjectBuilder().add("error", "Internal error").build());
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private void create (HttpExchange exchange) throws IOException, RequestException {
+        JsonObject body = body(exchange);
+        String dictionary_id;
+        try {
+            dictionary_id = body.getString("dictionary");
+        }
+        catch (NullPointerException | ClassCastException e) {
+            throw new RequestException(400, "Missing dictionary");
+        }
+
+        // indexed dictionaries are shared by every game using them
+        DictionaryIndex dictionary;
+        try {
+            dictionary = DictionaryCache.shared().get(dictionary_id);
+        }
+        catch (Exception e) {
+            throw new RequestException(404, "Error loading dictionary with id: " + dictionary_id);
+        }
+
+        if (this.games.size() >= MAX_GAMES && evictExpired() == 0 && this.games.size() >= MAX_GAMES) {
+            throw new RequestException(503, "Too many games");
+        }
+        ServerGame game = new ServerGame(this.next_id.incrementAndGet(), new GameEngine());
+        JsonObject state;
+        synchronized (game.engine) {
+            game.engine.start(dictionary);
+            state = describe(game.id, game.engine);
+        }
+        this.games.put(game.id, game);
+        send(exchange, 201, state);
+    }
+
+    private void state (HttpExchange exchange, ServerGame game) throws IOException {
+        JsonObject state;
+        synchronized (game.engine) {
+            state = describe(game.id, game.engine);
+        }
+        send(exchange, 200, state);
+    }
+
+    private void move (HttpExchange exchange, ServerGame game) throws IOException, RequestException {
+        JsonObject body = body(exchange);
+        int position;
+        String letter;
+        try {
+            position = body.getInt("position");
+            letter = body.getString("letter");
+        }
+        catch (NullPointerException | ClassCastException e) {
+            throw new RequestException(400, "Missing position or letter");
+        }
+        if (letter.length() != 1 || letter.charAt(0) < 'A' || letter.charAt(0) > 'Z') {
+            throw new RequestException(400, "Letter must be a single character from A to Z");
+        }
+
+        JsonObject state;
+        synchronized (game.engine) {
+            if (!game.engine.isLegalMove(position, letter.charAt(0))) {
+                throw new RequestException(409, "Illegal move " + letter + " " + position);
+            }
+            game.engine.move(position, letter.charAt(0));
+            state = describe(game.id, game.engine);
+        }
+        send(exchange, 200, state);
+    }
+
+    private void forfeit (HttpExchange exchange, ServerGame game) throws IOException, RequestException {
+        JsonObject state;
+        synchronized (game.engine) {
+            if (game.engine.isFinished()) {
+                throw new RequestException(409, "Game has finished");
+            }
+            game.engine.forfeit();
+            state = describe(game.id, game.engine);
+        }
+        send(exchange, 200, state);
+    }
+
+    private void delete (HttpExchange exchange, String id) throws IOException, RequestException {
+        long key = parseId(id);
+        ServerGame game = this.games.remove(key);
+        if (game == null) {
+            throw new RequestException(404, "Unknown game " + id);
+        }
+        // answer with the last state instead of 204, the JDK server drops kept-alive connections after a 204
+        JsonObject state;
+        synchronized (game.engine) {
+            state = describe(key, game.engine);
+            game.engine.abandon();
+        }
+        send(exchange, 200, state);
+    }
+
+    /**
+     * @return state of a game, the word is included once the game is finished
+     */
+    private static JsonObject describe (long id, GameEngine engine) {
+        StringBuilder displayed = new StringBuilder(engine.getLength());
+        for (int i = 0; i < engine.getLength(); i++) {
+            char c = engine.getLetter(i);
+            displayed.append((c == '\u0000') ? '_' : c);
+        }
+
+        JsonObjectBuilder state = Json.createObjectBuilder()
+                .add("id", id)
+                .add("displayed", displayed.toString())
+                .add("length", engine.getLength())
+                .add("points", engine.getPoints())
+                .add("moves", engine.getTotalMoves())
+                .add("triesLeft", engine.getTriesLeft())
+                .add("candidates", engine.getCandidateCount())
+                .add("finished", engine.isFinished())
+                .add("victory", engine.isVictory());
+        if (engine.isFinished()) {
+            state.add("word", engine.getWord());
+        }
+        return state.build();
+    }
+
+    private ServerGame game (String id) throws RequestException {
+        long key = parseId(id);
+        ServerGame game = this.games.get(key);
+        if (game == null) {
+            throw new RequestException(404, "Unknown game " + id);
+        }
+        game.touch();
+        return game;
+    }
+
+    private static long parseId (String id) throws RequestException {
+        try {
+            return Long.parseLong(id);
+        }
+        catch (NumberFormatException e) {
+            throw new RequestException(404, "Unknown game " + id);
+        }
+    }
+
+    private static JsonObject body (HttpExchange exchange) throws IOException, RequestException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY + 1);
+        }
+        if (bytes.length > MAX_BODY) {
+            throw new RequestException(413, "Request body too large");
+        }
+        try (JsonReader reader = Json.createReader(new ByteArrayInputStream(bytes))) {
+            return reader.readObject();
+        }
+        catch (JsonException | IllegalStateException e) {
+            throw new RequestException(400, "Request body must be a JSON object");
+        }
+    }
+
+    private static void send (HttpExchange exchange, int status, JsonObject body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * hosted game, its id and the time of its last request
+     */
+    private static class ServerGame {
+        private final long id;
+        private final GameEngine engine;
+        private volatile long last_used;
+
+        private ServerGame(long id, GameEngine engine) {
+            this.id = id;
+            this.engine = engine;
+            this.last_used = System.nanoTime();
+        }
+
+        private void touch() {
+            this.last_used = System.nanoTime();
+        }
+
+        private boolean isExpired(long now) {
+            long idle = now - this.last_used;
+            if (idle > IDLE_TTL) {
+                return true;
+            }
+            synchronized (this.engine) {
+                return idle > FINISHED_TTL && this.engine.isFinished();
+            }
+        }
+    }
+
+    /**
+     * request that can't be served, answered with status and message
+     */
+    private static class RequestException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * run server until the process is stopped
+     * @param args optional port (default DEFAULT_PORT) and number of worker threads (default number of cores)
+     * @throws IOException failed to bind port
+     */
+    public static void main (String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        GameServer server = new GameServer(port, threads);
+        server.start();
+        System.out.println("Hangman server listening on " + InetAddress.getLoopbackAddress().getHostAddress() + " port " + server.getPort() + " with " + threads + " threads");
+    }
+}
@@ -2,8 +2,13 @@ module com.example.hangman {
     requires javafx.controls;
     requires javafx.fxml;
     requires javax.json;
+    requires jdk.httpserver;
+    requires java.management;
 
 
     opens com.example.hangman to javafx.fxml;
     exports com.example.hangman;
+    exports com.example.hangman.engine;
+    exports com.example.hangman.metrics;
+    exports com.example.hangman.server;
 }
\ No newline at end of file
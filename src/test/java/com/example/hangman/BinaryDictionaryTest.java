@@ -0,0 +1,100 @@
+package com.example.hangman;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * binary sidecar written by BinaryDictionary.write() and read back
+ */
+class BinaryDictionaryTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTrip() throws IOException {
+        Set<String> words = randomWords(new Random(3), 500);
+        Path path = this.dir.resolve("words.bin");
+        BinaryDictionary.write(path, words);
+
+        // every word comes back, grouped by length
+        String[] read = BinaryDictionary.read(path);
+        assertEquals(words, new HashSet<>(Arrays.asList(read)));
+        for (int i = 1; i < read.length; i++) {
+            assertTrue(read[i - 1].length() <= read[i].length());
+        }
+
+        // packed words are the same words
+        PackedWords[] packed = BinaryDictionary.readPacked(path, LoadProgress.NONE);
+        Set<String> unpacked = new HashSet<>();
+        for (PackedWords bucket : packed) {
+            for (int i = 0; i < bucket.size(); i++) {
+                unpacked.add(bucket.getWord(i));
+            }
+        }
+        assertEquals(words, unpacked);
+
+        // histogram only
+        int[] histogram = new int[packed.length];
+        for (String word : words) {
+            histogram[word.length()]++;
+        }
+        assertArrayEquals(histogram, BinaryDictionary.histogram(path));
+    }
+
+    @Test
+    void corruptHeaderIsIOException() throws IOException {
+        Path path = this.dir.resolve("words.bin");
+        BinaryDictionary.write(path, randomWords(new Random(4), 100));
+        byte[] good = Files.readAllBytes(path);
+        int max_length = ByteBuffer.wrap(good).getInt(12);
+        int histogram = 16;
+        int offsets = histogram + 4 * (max_length + 1);
+
+        // negative count, counts not matching the total, moved bucket, bucket past the end of the file,
+        // truncated file
+        int[][] corruptions = {
+                {histogram + 4 * 6, -1},
+                {histogram + 4 * 7, 1000},
+                {offsets + 4 * 8, ByteBuffer.wrap(good).getInt(offsets + 4 * 8) + 1},
+                {offsets + 4 * max_length, good.length},
+        };
+        for (int[] corruption : corruptions) {
+            byte[] bytes = good.clone();
+            ByteBuffer.wrap(bytes).putInt(corruption[0], corruption[1]);
+            Files.write(path, bytes);
+            assertThrows(IOException.class, () -> BinaryDictionary.readPacked(path, LoadProgress.NONE));
+            assertThrows(IOException.class, () -> BinaryDictionary.read(path));
+        }
+        Files.write(path, Arrays.copyOf(good, good.length - 3));
+        assertThrows(IOException.class, () -> BinaryDictionary.read(path));
+    }
+
+    /**
+     * unique words of 6 to 16 letters
+     */
+    static Set<String> randomWords(Random random, int count) {
+        Set<String> words = new HashSet<>();
+        while (words.size() < count) {
+            char[] word = new char[6 + random.nextInt(11)];
+            for (int i = 0; i < word.length; i++) {
+                word[i] = (char) ('A' + random.nextInt(26));
+            }
+            words.add(new String(word));
+        }
+        return words;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.hangman;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DictionaryBatchBuilder against a stub server of works on the loopback address, and the WorkCache it fills
+ * works "good..." have a description of five distinct long words, "empty" has no description,
+ * any other work is missing (404)
+ */
+class DictionaryBatchBuilderTest {
+    private static final String DESCRIPTION = "a hangman dictionary built from fetched descriptions, "
+            + "fetched twice to check the dictionary wordlists";
+    private static final int CONCURRENCY = 2;
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private ExecutorService server_threads;
+    private String base_url;
+    private WorkCache cache;
+
+    // requests being served and most requests served at the same time
+    private final AtomicInteger in_flight = new AtomicInteger();
+    private final AtomicInteger max_in_flight = new AtomicInteger();
+
+    @BeforeEach
+    void start() throws IOException {
+        Path dictionaries = Files.createDirectories(this.dir.resolve("dictionaries"));
+        Dictionary.setDirectory(dictionaries);
+        this.cache = new WorkCache(this.dir.resolve("cache"), TimeUnit.HOURS.toMillis(1), 1024 * 1024);
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        // more server threads than the builder may use, so only the builder limits concurrency
+        this.server_threads = Executors.newFixedThreadPool(4 * CONCURRENCY);
+        this.server.setExecutor(this.server_threads);
+        this.server.createContext("/works/", this::serve);
+        this.server.start();
+        this.base_url = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                + this.server.getAddress().getPort() + "/works/";
+    }
+
+    @AfterEach
+    void stop() {
+        this.server.stop(0);
+        this.server_threads.shutdownNow();
+        Dictionary.setDirectory(Paths.get(Dictionary.PATH));
+    }
+
+    @Test
+    void buildsEveryItemWithinConcurrency() throws Exception {
+        List<DictionaryBatchBuilder.Item> items = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            items.add(new DictionaryBatchBuilder.Item("good" + i, "good" + i));
+        }
+        items.add(new DictionaryBatchBuilder.Item("empty", "empty"));
+        items.add(new DictionaryBatchBuilder.Item("missing", "missing"));
+
+        List<DictionaryBatchBuilder.Result> results =
+                new DictionaryBatchBuilder(this.base_url, CONCURRENCY, this.cache).build(items);
+
+        assertEquals(items.size(), results.size());
+        for (int i = 0; i < 6; i++) {
+            DictionaryBatchBuilder.Result result = results.get(i);
+            assertEquals("good" + i, result.getItem().getDictionaryId());
+            assertTrue(result.isSuccess());
+            assertNull(result.getError());
+            assertEquals(5, result.getWordCount());
+            assertEquals(5, Files.readAllLines(Dictionary.textPath("good" + i)).size());
+        }
+
+        DictionaryBatchBuilder.Result empty = results.get(6);
+        assertFalse(empty.isSuccess());
+        assertEquals(0, empty.getWordCount());
+        assertTrue(empty.getError().getMessage().contains("description"));
+        assertFalse(Files.exists(Dictionary.textPath("empty")));
+
+        DictionaryBatchBuilder.Result missing = results.get(7);
+        assertFalse(missing.isSuccess());
+        assertEquals(0, missing.getWordCount());
+        assertInstanceOf(IOException.class, missing.getError());
+
+        // the 50 ms answers overlap, so the builder uses its whole concurrency but never more
+        assertEquals(CONCURRENCY, this.max_in_flight.get());
+    }
+
+    @Test
+    void offlineUsesCachedWorks() throws Exception {
+        DictionaryBatchBuilder builder = new DictionaryBatchBuilder(this.base_url, CONCURRENCY, this.cache);
+        builder.build(Arrays.asList(new DictionaryBatchBuilder.Item("first", "good0"),
+                new DictionaryBatchBuilder.Item("empty", "empty")));
+        assertEquals(2, this.cache.getMisses());
+
+        // cached works are used without the server, a work that wasn't fetched fails
+        this.server.stop(0);
+        this.cache.setOffline(true);
+        List<DictionaryBatchBuilder.Result> results = builder.build(Arrays.asList(
+                new DictionaryBatchBuilder.Item("second", "good0"),
+                new DictionaryBatchBuilder.Item("empty", "empty"),
+                new DictionaryBatchBuilder.Item("uncached", "good1")));
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(5, results.get(0).getWordCount());
+        assertTrue(results.get(1).getError().getMessage().contains("description"));
+        assertInstanceOf(IOException.class, results.get(2).getError());
+        assertTrue(results.get(2).getError().getMessage().contains("offline"));
+        assertEquals(2, this.cache.getHits());
+    }
+
+    /**
+     * answer a work after a short delay, so that concurrent requests overlap
+     */
+    private void serve(HttpExchange exchange) throws IOException {
+        int current = this.in_flight.incrementAndGet();
+        this.max_in_flight.accumulateAndGet(current, Math::max);
+        try {
+            Thread.sleep(50);
+            String name = exchange.getRequestURI().getPath().substring("/works/".length());
+            String body;
+            if (name.startsWith("good")) {
+                body = "{\"key\": \"/works/" + name + "\", \"description\": \"" + DESCRIPTION + "\"}";
+            }
+            else if (name.equals("empty.json")) {
+                body = "{\"key\": \"/works/empty\"}";
+            }
+            else {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            this.in_flight.decrementAndGet();
+            exchange.close();
+        }
+    }
+}
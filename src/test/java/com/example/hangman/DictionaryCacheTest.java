@@ -0,0 +1,176 @@
+package com.example.hangman;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LRU eviction, single-flight loading, hit and miss counting and invalidation of DictionaryCache
+ */
+class DictionaryCacheTest {
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void useTempDirectory() throws Exception {
+        Dictionary.setDirectory(this.dir);
+        Random random = new Random(11);
+        for (String id : new String[] {"a", "b", "c"}) {
+            Dictionary.save(id, new HashSet<>(BinaryDictionaryTest.randomWords(random, 100)));
+        }
+    }
+
+    @AfterEach
+    void restoreDirectory() {
+        Dictionary.setDirectory(Paths.get(Dictionary.PATH));
+    }
+
+    @Test
+    void hitsAndMisses() throws Exception {
+        DictionaryCache cache = new DictionaryCache(2);
+        DictionaryIndex first = cache.get("a");
+        assertSame(first, cache.get("a"));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() throws Exception {
+        DictionaryCache cache = new DictionaryCache(2);
+        cache.get("a");
+        cache.get("b");
+        // a becomes the most recently used, so c evicts b
+        cache.get("a");
+        cache.get("c");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        cache.get("a");
+        assertEquals(2, cache.getHits());
+        cache.get("b");
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    void concurrentRequestsShareOneLoad() throws Exception {
+        DictionaryCache cache = new DictionaryCache(2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DictionaryIndex[] loaded = new DictionaryIndex[9];
+
+        Thread loader = new Thread(() -> loaded[0] = get(cache, blockOnce(started, release)));
+        loader.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        List<Thread> waiters = new ArrayList<>();
+        for (int i = 1; i < loaded.length; i++) {
+            int slot = i;
+            Thread waiter = new Thread(() -> loaded[slot] = get(cache, LoadProgress.NONE));
+            waiter.start();
+            waiters.add(waiter);
+        }
+        // the waiters don't load the dictionary themselves, so they can't finish before the load
+        for (Thread waiter : waiters) {
+            waiter.join(100);
+            assertTrue(waiter.isAlive());
+        }
+
+        release.countDown();
+        loader.join();
+        for (Thread waiter : waiters) {
+            waiter.join();
+        }
+        for (DictionaryIndex index : loaded) {
+            assertSame(loaded[0], index);
+        }
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void invalidatedLoadIsNotCached() throws Exception {
+        DictionaryCache cache = new DictionaryCache(2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DictionaryIndex[] loaded = new DictionaryIndex[1];
+
+        Thread loader = new Thread(() -> loaded[0] = get(cache, blockOnce(started, release)));
+        loader.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        cache.invalidate("a");
+        release.countDown();
+        loader.join();
+
+        assertEquals(100, loaded[0].size());
+        assertEquals(0, cache.size());
+        assertNotSame(loaded[0], cache.get("a"));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void loadOfChangedFileIsNotCached() throws Exception {
+        DictionaryCache cache = new DictionaryCache(2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DictionaryIndex[] loaded = new DictionaryIndex[1];
+
+        Thread loader = new Thread(() -> loaded[0] = get(cache, blockOnce(started, release)));
+        loader.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        // rewrite the dictionary behind the cache's back, with a modification time that surely differs
+        Path text = Dictionary.textPath("a");
+        FileTime modified = Files.getLastModifiedTime(text);
+        Dictionary.save("a", new HashSet<>(BinaryDictionaryTest.randomWords(new Random(12), 150)));
+        Files.setLastModifiedTime(text, FileTime.fromMillis(modified.toMillis() + 5000));
+        release.countDown();
+        loader.join();
+
+        assertEquals(0, cache.size());
+        assertEquals(150, cache.get("a").size());
+    }
+
+    /**
+     * @return progress blocking the first update until release is counted down
+     */
+    private static LoadProgress blockOnce(CountDownLatch started, CountDownLatch release) {
+        AtomicBoolean blocked = new AtomicBoolean();
+        return fraction -> {
+            if (blocked.compareAndSet(false, true)) {
+                started.countDown();
+                try {
+                    release.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    private static DictionaryIndex get(DictionaryCache cache, LoadProgress progress) {
+        try {
+            return cache.get("a", progress);
+        }
+        catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.hangman;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BOUNDED mode of DictionaryValidator, with a bloom filter small enough to have false positives
+ */
+class DictionaryValidatorTest {
+    // 64 bits, every word of a large dictionary is a suspect
+    private static final int TINY_BLOOM = 8;
+
+    @Test
+    void uniqueWordsPassBothPasses() throws Exception {
+        List<String> words = new ArrayList<>(BinaryDictionaryTest.randomWords(new Random(5), 2000));
+        DictionaryValidator validator = new DictionaryValidator("test", DictionaryValidator.Mode.BOUNDED, TINY_BLOOM);
+        for (String word : words) {
+            validator.accept(word);
+        }
+        // false positives of the bloom filter must be cleared by the second pass
+        assertTrue(validator.needsConfirmation());
+        int line = 0;
+        for (String word : words) {
+            validator.confirm(word, ++line);
+        }
+        validator.finish();
+        assertEquals(words.size(), validator.getTotalWords());
+    }
+
+    @Test
+    void duplicateIsFound() throws Exception {
+        List<String> words = new ArrayList<>(BinaryDictionaryTest.randomWords(new Random(6), 2000));
+        // same word far apart
+        words.add(1500, words.get(10));
+        DictionaryValidator validator = new DictionaryValidator("test", DictionaryValidator.Mode.BOUNDED, 1 << 16);
+        Exceptions.InvalidCountException e = assertThrows(Exceptions.InvalidCountException.class, () -> {
+            for (String word : words) {
+                validator.accept(word);
+            }
+            int line = 0;
+            for (String word : words) {
+                line++;
+                validator.confirm(word, line);
+            }
+        });
+        assertTrue(e.getMessage().contains("line"));
+    }
+
+    @Test
+    void boundedAgreesWithExact() throws Exception {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 20; trial++) {
+            List<String> words = new ArrayList<>(BinaryDictionaryTest.randomWords(random, 200));
+            boolean duplicate = random.nextBoolean();
+            if (duplicate) {
+                words.add(random.nextInt(words.size()), words.get(random.nextInt(words.size())));
+            }
+            assertEquals(duplicate, !passes(words, new DictionaryValidator("test")));
+            assertEquals(duplicate, !passes(words,
+                    new DictionaryValidator("test", DictionaryValidator.Mode.BOUNDED, TINY_BLOOM)));
+        }
+    }
+
+    @Test
+    void shortWordRejected() {
+        DictionaryValidator validator = new DictionaryValidator("test", DictionaryValidator.Mode.BOUNDED, TINY_BLOOM);
+        assertThrows(Exceptions.InvalidRangeException.class, () -> validator.accept("SHORT"));
+    }
+
+    @Test
+    void exactModeNeedsNoConfirmation() throws Exception {
+        DictionaryValidator validator = new DictionaryValidator("test");
+        validator.accept("ABCDEFGHI");
+        assertFalse(validator.needsConfirmation());
+    }
+
+    /**
+     * run both passes of the validator over the words
+     */
+    private static boolean passes(List<String> words, DictionaryValidator validator) throws Exception {
+        try {
+            for (String word : words) {
+                validator.accept(word);
+            }
+            if (validator.needsConfirmation()) {
+                int line = 0;
+                for (String word : words) {
+                    validator.confirm(word, ++line);
+                }
+            }
+            validator.finish();
+            return true;
+        }
+        catch (Exceptions.InvalidCountException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.hangman;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HistoryJournal recovering from an interrupted append
+ */
+class HistoryJournalTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void partialRecordIsDiscarded() throws IOException {
+        Path path = this.dir.resolve("history.journal");
+        try (HistoryJournal journal = new HistoryJournal(path, 1)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append("eng", "WORDNUMBER" + (char) ('A' + i), i + 1, 5 * i, i % 2 == 0);
+            }
+        }
+
+        // append half a record, as left by a crash in the middle of an append
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[HistoryJournal.RECORD_SIZE / 2]));
+        }
+        assertEquals(HistoryJournal.HEADER_SIZE + 10L * HistoryJournal.RECORD_SIZE + HistoryJournal.RECORD_SIZE / 2,
+                Files.size(path));
+
+        try (HistoryJournal journal = new HistoryJournal(path, 1)) {
+            assertEquals(10, journal.size());
+            assertEquals(HistoryJournal.HEADER_SIZE + 10L * HistoryJournal.RECORD_SIZE, Files.size(path));
+
+            // records before the partial one are intact
+            List<Round> rounds = journal.readRange(0, 10);
+            for (int i = 0; i < 10; i++) {
+                Round round = rounds.get(i);
+                assertEquals(i, round.getSeq());
+                assertEquals("WORDNUMBER" + (char) ('A' + i), round.getWord());
+                assertEquals("eng", round.getDictionaryId());
+                assertEquals(i + 1, round.getMoves());
+                assertEquals(5 * i, round.getPoints());
+                assertEquals(i % 2 == 0, round.isVictory());
+            }
+
+            // appending continues after the last complete record
+            Round next = journal.append("eng", "NEXTWORD", 3, 10, true);
+            assertEquals(10, next.getSeq());
+            assertTrue(next.getTimestamp() >= rounds.get(9).getTimestamp());
+        }
+        try (HistoryJournal journal = new HistoryJournal(path, 1)) {
+            assertEquals(11, journal.size());
+            assertEquals("NEXTWORD", journal.read(10).getWord());
+        }
+    }
+
+    @Test
+    void notAJournalIsRejected() throws IOException {
+        Path path = this.dir.resolve("other.journal");
+        Files.write(path, new byte[HistoryJournal.HEADER_SIZE + 7]);
+        assertThrows(IOException.class, () -> new HistoryJournal(path, 1));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.hangman;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * queries of HistoryStore with many dictionaries per index block, compared with a scan of every round
+ */
+class HistoryStoreTest {
+    private static final int ROUNDS = 5 * HistoryIndex.BLOCK_SIZE + 300;
+    private static final int DICTIONARIES = 3000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void forDictionaryMatchesScan() throws IOException {
+        Path journal = this.dir.resolve("history.dat");
+        Path index = this.dir.resolve("history.idx");
+        Random random = new Random(11);
+        try (HistoryStore history = new HistoryStore(journal, index, 0)) {
+            for (int i = 0; i < ROUNDS; i++) {
+                // a rare dictionary in a single block, the rest spread over every block
+                String dictionary = (i == 2500) ? "rare" : "dictionary-" + random.nextInt(DICTIONARIES);
+                history.append(dictionary, "HANGMAN", 10, 20, (i & 1) == 0);
+            }
+            assertQueries(history);
+        }
+
+        // summaries are read back from the index file
+        try (HistoryStore history = new HistoryStore(journal, index, 0)) {
+            assertQueries(history);
+        }
+
+        // interrupted write of the last summary, the block is summarised again from the journal
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+        try (HistoryStore history = new HistoryStore(journal, index, 0)) {
+            assertQueries(history);
+        }
+
+        // unusable index is rebuilt
+        Files.write(index, new byte[] {1, 2, 3});
+        try (HistoryStore history = new HistoryStore(journal, index, 0)) {
+            assertQueries(history);
+            history.append("rare", "HANGMAN", 1, 2, true);
+            assertEquals(2, history.forDictionary("rare", 5).size());
+        }
+    }
+
+    private static void assertQueries(HistoryStore history) throws IOException {
+        List<Round> all = history.range(0, history.size());
+        for (String dictionary : new String[] {"rare", "dictionary-7", "dictionary-2999", "missing"}) {
+            List<Round> expected = new ArrayList<>();
+            for (int i = all.size() - 1; i >= 0 && expected.size() < 50; i--) {
+                if (all.get(i).getDictionaryId().equals(dictionary)) {
+                    expected.add(all.get(i));
+                }
+            }
+            List<Round> rounds = history.forDictionary(dictionary, 50);
+            assertEquals(expected.size(), rounds.size(), dictionary);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getSeq(), rounds.get(i).getSeq());
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.hangman;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * latest rounds read while the writer is appending, without flushing, and rounds submitted while interrupted
+ */
+class HistoryWriterTest {
+    private static final int ROUNDS = 20000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void lastSeesEverySubmittedRoundOnce() throws IOException {
+        try (HistoryStore store = new HistoryStore(this.dir.resolve("history.dat"),
+                this.dir.resolve("history.idx"), 0)) {
+            HistoryWriter writer = new HistoryWriter(store, 64);
+            for (int i = 0; i < ROUNDS; i++) {
+                writer.submit(new Round(0, 0, "eng", word(i), 1, 0, true));
+                // rounds just submitted are shown, newest first, whether they are written or not
+                List<Round> last = writer.last(5);
+                assertEquals(Math.min(i + 1, 5), last.size());
+                for (int j = 0; j < last.size(); j++) {
+                    assertEquals(word(i - j), last.get(j).getWord(), "round " + i);
+                }
+            }
+            writer.close();
+            assertEquals(ROUNDS, store.size());
+            assertEquals(word(ROUNDS - 1), writer.last(1).get(0).getWord());
+        }
+    }
+
+    @Test
+    void interruptedSubmitKeepsRoundAndInterruptStatus() throws IOException {
+        try (HistoryStore store = new HistoryStore(this.dir.resolve("history.dat"),
+                this.dir.resolve("history.idx"), 0)) {
+            HistoryWriter writer = new HistoryWriter(store, 1);
+            Thread.currentThread().interrupt();
+            try {
+                // the queue is full most of the time, so submit() waits while interrupted
+                for (int i = 0; i < 200; i++) {
+                    writer.submit(new Round(0, 0, "eng", word(i), 1, 0, true));
+                    assertTrue(Thread.currentThread().isInterrupted());
+                }
+            }
+            finally {
+                Thread.interrupted();
+            }
+            writer.close();
+            assertEquals(200, store.size());
+        }
+    }
+
+    @Test
+    void statisticsCountOnlyAppendedRounds() throws Exception {
+        StatsStore stats = new StatsStore();
+        try (HistoryStore store = new HistoryStore(this.dir.resolve("history.dat"),
+                this.dir.resolve("history.idx"), 0)) {
+            HistoryWriter writer = new HistoryWriter(store, 64, stats);
+            for (int i = 0; i < 10; i++) {
+                writer.submit(new Round(0, 0, "eng", word(i), 1, 0, true));
+            }
+            writer.flush();
+
+            // appending to the closed store fails, the statistics keep matching the history
+            store.close();
+            for (int i = 10; i < 15; i++) {
+                writer.submit(new Round(0, 0, "eng", word(i), 1, 0, true));
+            }
+            writer.close();
+            assertEquals(5, writer.getFailed());
+            assertEquals(10, stats.getRounds());
+            assertEquals(10, stats.getDictionaryGames("eng").getGames());
+        }
+    }
+
+    private static String word(int i) {
+        return String.format("WORD%06d", i);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.hangman.engine;
+
+import com.example.hangman.DictionaryIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * letter counts maintained by the engine after every move, checked against a recount of the words
+ * that still fit the game
+ */
+class GameEngineTest {
+    private static final int GAMES = 300;
+
+    @Test
+    void incrementalCountsMatchRecount() {
+        playRandomGames(true, 1);
+    }
+
+    @Test
+    void recountedCountsMatchRecount() {
+        playRandomGames(false, 2);
+    }
+
+    /**
+     * play random games with the engine validating its counts, and recount the candidates from the words
+     * of the dictionary after every move
+     */
+    private static void playRandomGames(boolean incremental, long seed) {
+        Random random = new Random(seed);
+        String[] words = randomWords(random, 3000);
+        DictionaryIndex dictionary = new DictionaryIndex(words);
+
+        for (int g = 0; g < GAMES; g++) {
+            GameEngine engine = new GameEngine();
+            engine.setIncrementalCounts(incremental);
+            engine.setValidateCounts(true);
+            engine.start(dictionary, random.nextInt(dictionary.size()));
+            String target = engine.getWord();
+
+            // letters guessed right and wrong in every position
+            char[] found = new char[target.length()];
+            List<Set<Character>> wrong = new ArrayList<>();
+            for (int i = 0; i < target.length(); i++) {
+                wrong.add(new LinkedHashSet<>());
+            }
+
+            while (!engine.isFinished()) {
+                int position = random.nextInt(target.length());
+                if (engine.getLetter(position) != '\u0000') {
+                    continue;
+                }
+                // guess right half of the time, so that games also end in victory
+                char letter = random.nextBoolean()
+                        ? target.charAt(position)
+                        : (char) ('A' + random.nextInt(6));
+                if (!engine.isLegalMove(position, letter) || wrong.get(position).contains(letter)) {
+                    continue;
+                }
+                if (letter == target.charAt(position)) {
+                    found[position] = letter;
+                }
+                else {
+                    wrong.get(position).add(letter);
+                }
+                engine.move(position, letter);
+                assertRecount(engine, words, found, wrong);
+            }
+            assertTrue(engine.isVictory() || engine.getTriesLeft() == 0);
+        }
+    }
+
+    /**
+     * compare candidate count and letter counts of the engine with the words fitting the guesses
+     */
+    private static void assertRecount(GameEngine engine, String[] words, char[] found, List<Set<Character>> wrong) {
+        int length = found.length;
+        int[][] counts = new int[length][26];
+        int candidates = 0;
+        for (String word : words) {
+            if (word.length() != length || !fits(word, found, wrong)) {
+                continue;
+            }
+            candidates++;
+            for (int pos = 0; pos < length; pos++) {
+                counts[pos][word.charAt(pos) - 'A']++;
+            }
+        }
+
+        assertEquals(candidates, engine.getCandidateCount());
+        for (int pos = 0; pos < length; pos++) {
+            for (int l = 0; l < 26; l++) {
+                assertEquals(counts[pos][l], engine.getCount(pos, (char) ('A' + l)),
+                        "count of " + (char) ('A' + l) + " in position " + pos);
+            }
+        }
+    }
+
+    private static boolean fits(String word, char[] found, List<Set<Character>> wrong) {
+        for (int pos = 0; pos < found.length; pos++) {
+            char c = word.charAt(pos);
+            if ((found[pos] != '\u0000' && c != found[pos]) || wrong.get(pos).contains(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * unique words of 6 to 14 letters from the first 6 letters of the alphabet, so that positions share letters
+     */
+    private static String[] randomWords(Random random, int count) {
+        Set<String> words = new LinkedHashSet<>();
+        while (words.size() < count) {
+            char[] word = new char[6 + random.nextInt(9)];
+            for (int i = 0; i < word.length; i++) {
+                word[i] = (char) ('A' + random.nextInt(6));
+            }
+            words.add(new String(word));
+        }
+        return words.toArray(new String[0]);
+    }
+}